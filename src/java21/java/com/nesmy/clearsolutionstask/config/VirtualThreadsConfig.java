@@ -0,0 +1,34 @@
+package com.nesmy.clearsolutionstask.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.web.filter.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+// Only compiled by the virtual-threads profile (Java 21). Requests then run on virtual threads and
+// ConcurrencyLimitFilter, not the Tomcat pool size, is what bounds the load on the database.
+@Configuration
+@ConditionalOnProperty(name = "user.virtual-threads.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ConcurrencyLimitFilter concurrencyLimitFilter(
+            @Value("${user.concurrency.max-in-flight}") int maxInFlight,
+            @Value("${user.concurrency.acquire-timeout-ms}") long acquireTimeoutMs,
+            ObjectMapper objectMapper) throws JsonProcessingException {
+        return new ConcurrencyLimitFilter(maxInFlight, acquireTimeoutMs, objectMapper);
+    }
+}
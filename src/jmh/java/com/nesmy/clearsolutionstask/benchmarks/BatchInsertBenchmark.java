@@ -0,0 +1,90 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.nesmy.clearsolutionstask.ClearSolutionsTaskApplication;
+import com.nesmy.clearsolutionstask.dto.BatchResultDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.web.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Users created per second through the service, one save per user against POST /users/batch's saveAll, on the
+// whole application over an in-memory H2 database. Both pay for validation, the email check and the outbox;
+// saveAll also gets sequence blocks and JDBC batches, so the gap on PostgreSQL, with a network round trip per
+// statement, is wider than here.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(BatchInsertBenchmark.ROWS)
+public class BatchInsertBenchmark {
+
+    static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private long emails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(ClearSolutionsTaskApplication.class,
+                "--spring.datasource.url=jdbc:h2:mem:batch;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--server.port=0",
+                "--user.rate-limit.enabled=false",
+                // changes are still written to the outbox, just not relayed while the writes are measured
+                "--user.changes.relay.interval-ms=3600000",
+                "--user.changes.sink-file=target/batch-insert-benchmark-changes.ndjson",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--logging.level.root=warn");
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<User> save() {
+        List<User> saved = new ArrayList<>(ROWS);
+        for (User user : nextUsers())
+            saved.add(userService.save(user));
+        return saved;
+    }
+
+    @Benchmark
+    public BatchResultDTO saveAll() {
+        return userService.saveAll(nextUsers().iterator());
+    }
+
+    // fresh emails each time, so no user is rejected as a duplicate
+    private List<User> nextUsers() {
+        List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            User user = Users.adult(null);
+            user.setEmail("batch" + emails++ + "@gmail.com");
+            users.add(user);
+        }
+        return users;
+    }
+}
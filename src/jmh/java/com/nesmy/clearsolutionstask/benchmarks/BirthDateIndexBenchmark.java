@@ -0,0 +1,87 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.nesmy.clearsolutionstask.repository.BirthDateIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Range counts, id pages and writes against an index of `size` users with birth dates spread over 50 years.
+// The retained size is printed once per trial, e.g. "BirthDateIndex: 1000000 users, 12.0 MB".
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BirthDateIndexBenchmark {
+
+    private static final long SEED = 42;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000000"})
+    private int size;
+
+    private final LocalDate start = LocalDate.of(1970, 1, 1);
+    private final LocalDate end = LocalDate.of(1980, 1, 1);
+    private final long[] userIds = new long[PAGE_SIZE];
+    private final int[] epochDays = new int[PAGE_SIZE];
+    private BirthDateIndex index;
+    private LocalDate afterBirthDate;
+    private long afterUserId;
+    private int moves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        long firstDay = LocalDate.of(1950, 1, 1).toEpochDay();
+        long[] entries = new long[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = (firstDay + random.nextInt(50 * 365)) << 32 | (i + 1);
+        }
+        Arrays.sort(entries);
+        index = new BirthDateIndex();
+        for (long entry : entries) {
+            index.append(entry & 0xFFFFFFFFL, LocalDate.ofEpochDay(entry >> 32));
+        }
+        long middle = entries[size / 2];
+        afterBirthDate = LocalDate.ofEpochDay(middle >> 32);
+        afterUserId = middle & 0xFFFFFFFFL;
+        System.out.printf("BirthDateIndex: %d users, %.1f MB%n", index.size(), index.capacityBytes() / 1_000_000.0);
+    }
+
+    @Benchmark
+    public int count() {
+        return index.count(start, end);
+    }
+
+    @Benchmark
+    public int firstPage() {
+        return index.page(start, end, null, null, userIds, epochDays);
+    }
+
+    @Benchmark
+    public int nextPage() {
+        return index.page(LocalDate.of(1950, 1, 1), LocalDate.of(2000, 1, 1), afterBirthDate, afterUserId,
+                userIds, epochDays);
+    }
+
+    // moves one user back and forth between two birth dates: a scan for the id plus two array shifts
+    @Benchmark
+    public void put() {
+        index.put(size / 2, (moves++ & 1) == 0 ? start : end);
+    }
+}
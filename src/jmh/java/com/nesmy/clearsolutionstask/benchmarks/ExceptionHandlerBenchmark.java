@@ -0,0 +1,80 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.nesmy.clearsolutionstask.dto.ApiErrorDTO;
+import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.exceptions.ApiError;
+import com.nesmy.clearsolutionstask.exceptions.ApiException;
+import com.nesmy.clearsolutionstask.exceptions.ApiExceptions;
+import com.nesmy.clearsolutionstask.exceptions.GlobalExceptionHandler;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost of turning a rejected request into its ApiErrorDTO, including building the exception.
+// Run with -prof gc: gc.alloc.rate.norm is the garbage each rejected request leaves behind.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+    private ConstraintViolationException violations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User invalidUser = new User("andrii", "", "Muts", LocalDate.now().plusDays(10), "Lviv", "+380977020222");
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            // same nesting the controller produces for DataDTO<@Valid User>, e.g. "create.body.email"
+            violations = new ConstraintViolationException(
+                    factory.getValidator().validate(new Wrapper(new DataDTO<>(invalidUser))));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiErrorDTO> notFound() {
+        return handler.handleApiException(new ApiException(HttpStatus.NOT_FOUND,
+                List.of(new ApiError("userId", StringCodeConstants.NOT_FOUND))));
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiErrorDTO> notFoundPreallocated() {
+        return handler.handleApiException(ApiExceptions.USER_NOT_FOUND);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiErrorDTO> constraintViolations() {
+        return handler.handleValidationExceptions(violations);
+    }
+
+    static class Wrapper {
+        @jakarta.validation.Valid
+        final DataDTO<@jakarta.validation.Valid User> body;
+
+        Wrapper(DataDTO<User> body) {
+            this.body = body;
+        }
+    }
+}
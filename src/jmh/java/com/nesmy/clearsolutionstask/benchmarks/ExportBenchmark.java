@@ -0,0 +1,103 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.nesmy.clearsolutionstask.repository.UserExportRepository;
+import com.nesmy.clearsolutionstask.utils.UserExportWriter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Rows per second of a full export, from the JDBC cursor of an in-memory H2 table to a discarding response.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(ExportBenchmark.ROWS)
+public class ExportBenchmark {
+
+    static final int ROWS = 100_000;
+
+    @Param({"csv", "ndjson"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private JdbcTemplate jdbcTemplate;
+    private UserExportRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table users (user_id bigint primary key, email varchar(255), first_name varchar(255), "
+                + "last_name varchar(255), birth_date date, address varchar(255), phone_number varchar(255))");
+        jdbcTemplate.batchUpdate("insert into users values (?, ?, ?, ?, ?, ?, ?)", Users.generate(ROWS).stream()
+                .map(user -> new Object[]{user.getUserId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                        user.getBirthDate(), user.getAddress(), user.getPhoneNumber()})
+                .toList());
+        repository = new UserExportRepository(jdbcTemplate, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("drop table users");
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        UserExportWriter writer = new UserExportWriter(jsonFactory, new DiscardingResponse(), format.equals("csv"), gzip);
+        repository.export(null, null, writer);
+        return writer.finish();
+    }
+
+    private static class DiscardingResponse extends MockHttpServletResponse {
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.utils.ETagUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Server-side cost of a GET /users range response: the plain body, the body through gzip as Tomcat
+// compresses it, and a revalidation that only builds the ETag and answers 304. Body sizes are printed at setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpCachingBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<User> users;
+    private String ifNoneMatch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        users = Users.generate(size);
+        users.forEach(user -> user.setVersion(0L));
+        ifNoneMatch = notModified().getHeaders().getETag();
+        System.out.printf("%n%d users: %d bytes plain, %d bytes gzip, 0 bytes on 304%n",
+                size, plain().length, gzip().length);
+    }
+
+    @Benchmark
+    public byte[] plain() throws IOException {
+        return objectMapper.writeValueAsBytes(new DataDTO<>(users));
+    }
+
+    @Benchmark
+    public byte[] gzip() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            objectMapper.writeValue(gzip, new DataDTO<>(users));
+        }
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public ResponseEntity<DataDTO<List<User>>> notModified() {
+        ResponseEntity<DataDTO<List<User>>> response =
+                ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), users).body(new DataDTO<>(users));
+        if (response.getHeaders().getETag().equals(ifNoneMatch))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ifNoneMatch).build();
+        return response;
+    }
+}
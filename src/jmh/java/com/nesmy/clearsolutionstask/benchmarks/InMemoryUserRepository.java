@@ -0,0 +1,76 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Map-backed stand-in for the JPA repository covering the calls UserServiceImpl makes on its write paths.
+// Ids wrap around after CAPACITY so long benchmark runs keep a flat heap.
+public final class InMemoryUserRepository {
+
+    public static final long CAPACITY = 10_000;
+
+    private InMemoryUserRepository() {
+    }
+
+    public static UserRepository create() {
+        Map<Long, User> users = new ConcurrentHashMap<>();
+        AtomicLong ids = new AtomicLong();
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> save(users, ids, (User) args[0]);
+                    case "saveAll", "saveAllAndFlush" -> {
+                        List<User> saved = new ArrayList<>();
+                        for (Object user : (Iterable<?>) args[0]) {
+                            saved.add(save(users, ids, (User) user));
+                        }
+                        yield saved;
+                    }
+                    case "findById" -> Optional.ofNullable(users.get((Long) args[0]));
+                    case "existsById" -> users.containsKey((Long) args[0]);
+                    case "existsByEmail" -> users.values().stream().anyMatch(user -> args[0].equals(user.getEmail()));
+                    case "delete" -> {
+                        users.remove(((User) args[0]).getUserId());
+                        yield null;
+                    }
+                    case "deleteById" -> {
+                        users.remove((Long) args[0]);
+                        yield null;
+                    }
+                    case "updateFields" -> updateFields(users, (Long) args[0], (Long) args[1], (Map<?, ?>) args[2]);
+                    case "count" -> (long) users.size();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static User save(Map<Long, User> users, AtomicLong ids, User user) {
+        if (user.getUserId() == null)
+            user.setUserId(ids.getAndIncrement() % CAPACITY + 1);
+        if (user.getVersion() == null)
+            user.setVersion(0L);
+        users.put(user.getUserId(), new User(user));
+        return user;
+    }
+
+    private static int updateFields(Map<Long, User> users, Long id, long version, Map<?, ?> values) {
+        User current = users.get(id);
+        if (current == null || current.getVersion() != version)
+            return 0;
+        User updated = new User(current);
+        new BeanWrapperImpl(updated).setPropertyValues(values);
+        updated.setVersion(version + 1);
+        return users.replace(id, current, updated) ? 1 : 0;
+    }
+}
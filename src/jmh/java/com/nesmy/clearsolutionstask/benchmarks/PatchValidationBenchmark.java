@@ -0,0 +1,74 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.nesmy.clearsolutionstask.entity.User;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Cost of validating one PATCH that changes email and firstName.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatchValidationBenchmark {
+
+    private final List<String> changedFields = List.of("email", "firstName");
+    private User patchedUser;
+    private ValidatorFactory sharedFactory;
+    private Validator sharedValidator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        patchedUser = new User(1L, "updated@gmail.com", "Updated", "Muts", LocalDate.of(1998, 9, 9), "Lviv", "+380977020222");
+        sharedFactory = Validation.buildDefaultValidatorFactory();
+        sharedValidator = sharedFactory.getValidator();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sharedFactory.close();
+    }
+
+    // what validateUserForPatch used to do on every request
+    @Benchmark
+    public Set<ConstraintViolation<User>> factoryPerRequest() {
+        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        Validator validator = factory.getValidator();
+        return validator.validate(patchedUser);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> sharedValidatorWholeUser() {
+        return sharedValidator.validate(patchedUser);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> sharedValidatorChangedFields() {
+        Set<ConstraintViolation<User>> violations = new HashSet<>();
+        for (String field : changedFields) {
+            violations.addAll(sharedValidator.validateProperty(patchedUser, field));
+        }
+        return violations;
+    }
+}
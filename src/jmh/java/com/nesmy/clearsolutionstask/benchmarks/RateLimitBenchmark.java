@@ -0,0 +1,88 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.web.filter.RateLimitFilter;
+import com.nesmy.clearsolutionstask.web.filter.RateLimitProperties;
+import com.nesmy.clearsolutionstask.web.filter.RateLimiter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Hot-path cost of the limiter with 4 threads: all on one client's bucket (worst-case CAS contention),
+// spread over 10k clients, and the whole filter including rule matching and headers.
+// Limits are high enough that nothing is rejected, so every call takes the allowed path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RateLimitBenchmark {
+
+    private static final int CLIENTS = 10_000;
+    private static final FilterChain NO_OP = (request, response) -> {
+    };
+
+    private final String[] clients = new String[CLIENTS];
+    private RateLimiter limiter;
+    private RateLimitFilter filter;
+
+    @State(Scope.Thread)
+    public static class Exchange {
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users/batch");
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            request.setRemoteAddr("10.0.0." + ThreadLocalRandom.current().nextInt(256));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "client-" + i;
+        }
+        limiter = new RateLimiter(1_000_000_000, 1e9, CLIENTS * 2);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setDefaultLimit(new RateLimitProperties.Limit(null, null, 1_000_000_000, 1e9));
+        properties.getEndpoints().put("range", new RateLimitProperties.Limit("GET", "/users", 1_000_000_000, 1e9));
+        properties.getEndpoints().put("bulk",
+                new RateLimitProperties.Limit("POST", "/users/{operation:batch|import}", 1_000_000_000, 1e9));
+        filter = new RateLimitFilter(properties, new ObjectMapper());
+    }
+
+    @Benchmark
+    public long sharedClient() {
+        return limiter.tryAcquire(clients[0]);
+    }
+
+    @Benchmark
+    public long distinctClients() {
+        return limiter.tryAcquire(clients[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filter(Exchange exchange) throws Exception {
+        filter.doFilter(exchange.request, exchange.response, NO_OP);
+        return exchange.response;
+    }
+}
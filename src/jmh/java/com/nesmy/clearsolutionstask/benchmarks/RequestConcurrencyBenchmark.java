@@ -0,0 +1,120 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.nesmy.clearsolutionstask.ClearSolutionsTaskApplication;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Requests per second and latency of the running application under more concurrent clients than Tomcat has
+// platform threads, on platform threads against virtual threads with ConcurrencyLimitFilter. Most requests read
+// one page of a birth date range; one in ten counts a wide range, the slow tail that holds a connection longest.
+// The responses counters tell served requests from ones shed with 503 and ones that failed, e.g. on a connection
+// checkout timeout. The virtual mode needs the Java 21 build:
+//   mvn -Pvirtual-threads,jmh test-compile exec:exec -Djmh.args="RequestConcurrency"
+// and platform runs on either (-p executor=platform on Java 17).
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(400)
+public class RequestConcurrencyBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"platform", "virtual"})
+    private String executor;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI page;
+    private URI count;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+
+        public long served;
+        public long shed;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            served = 0;
+            shed = 0;
+            failed = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = executor.equals("virtual");
+        if (virtual && !ClassUtils.isPresent("com.nesmy.clearsolutionstask.config.VirtualThreadsConfig", null))
+            throw new IllegalStateException("virtual threads need the virtual-threads build (Java 21)");
+        context = SpringApplication.run(ClearSolutionsTaskApplication.class,
+                "--spring.datasource.url=jdbc:h2:mem:concurrency;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--server.port=0",
+                "--user.virtual-threads.enabled=" + virtual,
+                "--user.rate-limit.enabled=false",
+                "--user.changes.sink-file=target/request-concurrency-benchmark-changes.ndjson",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--logging.level.root=warn");
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.batchUpdate("insert into users (user_id, email, first_name, last_name, birth_date, address, "
+                + "phone_number) values (?, ?, ?, ?, ?, ?, ?)", Users.generate(ROWS).stream()
+                .map(user -> new Object[]{user.getUserId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                        user.getBirthDate(), user.getAddress(), user.getPhoneNumber()})
+                .toList());
+        String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        page = URI.create(base + "/users?startBirthDate=1970-01-01&endBirthDate=1980-01-01&limit=20");
+        count = URI.create(base + "/users/count?startBirthDate=1950-01-01&endBirthDate=2000-01-01");
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int request(Responses responses) throws IOException, InterruptedException {
+        URI uri = ThreadLocalRandom.current().nextInt(10) == 0 ? count : page;
+        int status = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+        if (status == 503)
+            responses.shed++;
+        else if (status >= 500)
+            responses.failed++;
+        else
+            responses.served++;
+        return status;
+    }
+}
@@ -0,0 +1,77 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.nesmy.clearsolutionstask.utils.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Load test for range reads during a spike: 32 threads asking for 8 hot ranges, each query a 2 ms database
+// round trip. The queries counter is the database QPS against the requests per second of each mode.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class SingleFlightBenchmark {
+
+    private static final int HOT_RANGES = 8;
+    private static final long QUERY_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private SingleFlight<Integer, List<Integer>> coalescing;
+    private SingleFlight<Integer, List<Integer>> microCached;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Database {
+
+        public long queries;
+
+        private List<Integer> query(int range) {
+            queries++;
+            LockSupport.parkNanos(QUERY_NANOS);
+            return List.of(range);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        coalescing = new SingleFlight<>("benchmark", Duration.ZERO, 0, new SimpleMeterRegistry());
+        microCached = new SingleFlight<>("benchmark", Duration.ofMillis(100), HOT_RANGES, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public List<Integer> direct(Database database) {
+        return database.query(ThreadLocalRandom.current().nextInt(HOT_RANGES));
+    }
+
+    @Benchmark
+    public List<Integer> coalesced(Database database) {
+        int range = ThreadLocalRandom.current().nextInt(HOT_RANGES);
+        return coalescing.execute(range, () -> database.query(range));
+    }
+
+    @Benchmark
+    public List<Integer> coalescedWithMicroCache(Database database) {
+        int range = ThreadLocalRandom.current().nextInt(HOT_RANGES);
+        return microCached.execute(range, () -> database.query(range));
+    }
+}
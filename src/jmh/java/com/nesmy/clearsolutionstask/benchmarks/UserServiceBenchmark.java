@@ -0,0 +1,90 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.EmailFilter;
+import com.nesmy.clearsolutionstask.repository.UserChangeRepository;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.web.service.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final long EXISTING_ID = 1L;
+
+    private final LocalDate birthDate = LocalDate.of(1998, 9, 9);
+    private final User patch = new User(EXISTING_ID, "patched@gmail.com", "Patched", null, null, null, null);
+    private final User replacement = Users.adult(EXISTING_ID);
+    private ValidatorFactory validatorFactory;
+    private UserServiceImpl userService;
+    private long emails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        UserRepository userRepository = InMemoryUserRepository.create();
+        userService = new UserServiceImpl(userRepository, null, validatorFactory.getValidator(),
+                new ConcurrentMapCacheManager(UserServiceImpl.USER_CACHE), new EmailFilter(10_000_000, 0.01), null, null,
+                // no database behind the repository, so the outbox and its transactions are stubbed out
+                Mockito.mock(UserChangeRepository.class), Mockito.mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 0, 0);
+        ReflectionTestUtils.setField(userService, "minAge", 18);
+        ReflectionTestUtils.setField(userService, "batchSize", 500);
+        ReflectionTestUtils.setField(userService, "maxUpdateAttempts", 10);
+        userRepository.save(Users.adult(null));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    // a fresh email each time, so the filter answers and no existence check is made
+    @Benchmark
+    public User save() {
+        User user = Users.adult(null);
+        user.setEmail("new" + emails++ + "@gmail.com");
+        return userService.save(user);
+    }
+
+    @Benchmark
+    public User update() {
+        return userService.update(EXISTING_ID, replacement);
+    }
+
+    @Benchmark
+    public User patch() {
+        return userService.patch(EXISTING_ID, patch);
+    }
+
+    @Benchmark
+    public int calculateAge() {
+        return UserServiceImpl.calculateAge(birthDate);
+    }
+}
@@ -0,0 +1,32 @@
+package com.nesmy.clearsolutionstask.benchmarks;
+
+import com.nesmy.clearsolutionstask.entity.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic test data so runs on different machines and versions compare like for like.
+final class Users {
+
+    private static final long SEED = 42;
+
+    private Users() {
+    }
+
+    static User adult(Long id) {
+        return new User(id, "user" + id + "@gmail.com", "Andrii", "Muts", LocalDate.of(1998, 9, 9), "Lviv", "+380977020222");
+    }
+
+    static List<User> generate(int count) {
+        Random random = new Random(SEED);
+        List<User> users = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            LocalDate birthDate = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(50 * 365));
+            users.add(new User(id, "user" + id + "@gmail.com", "First" + id, "Last" + id, birthDate,
+                    "Street " + random.nextInt(1000), "+38097" + (1_000_000 + random.nextInt(8_999_999))));
+        }
+        return users;
+    }
+}
@@ -1,9 +1,14 @@
 package com.nesmy.clearsolutionstask;
 
+import com.nesmy.clearsolutionstask.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@EnableCaching
+@ImportRuntimeHints(NativeHints.class)
 public class ClearSolutionsTaskApplication {
     public static void main(String[] args) {
         SpringApplication.run(ClearSolutionsTaskApplication.class, args);
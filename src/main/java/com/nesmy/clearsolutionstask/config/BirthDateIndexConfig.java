@@ -0,0 +1,26 @@
+package com.nesmy.clearsolutionstask.config;
+
+import com.nesmy.clearsolutionstask.repository.BirthDateIndex;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+// The index is local to this instance: it only sees writes made through this instance's UserServiceImpl.
+@Configuration
+@ConditionalOnProperty(name = "user.birth-date-index.enabled", havingValue = "true")
+public class BirthDateIndexConfig {
+
+    // the scan returns rows in index order, so they can be appended as they come
+    @Bean
+    public BirthDateIndex birthDateIndex(UserRepository userRepository, @Value("${user.batch.size}") int pageSize) {
+        BirthDateIndex index = new BirthDateIndex();
+        userRepository.scanFields(Set.of(), pageSize,
+                row -> index.append(row.get("userId", Long.class), row.get("birthDate", LocalDate.class)));
+        return index;
+    }
+}
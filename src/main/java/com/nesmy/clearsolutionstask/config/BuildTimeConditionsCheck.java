@@ -0,0 +1,53 @@
+package com.nesmy.clearsolutionstask.config;
+
+import com.nesmy.clearsolutionstask.web.filter.RateLimitFilter;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// An AOT-processed build decides its @ConditionalOnProperty beans when it is built, so setting one of these
+// properties at deploy time would be silently ignored. Startup fails instead when the beans and the properties
+// disagree; without AOT they always agree.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BuildTimeConditionsCheck implements SmartInitializingSingleton {
+
+    private final Environment environment;
+    private final ListableBeanFactory beanFactory;
+
+    @Autowired
+    public BuildTimeConditionsCheck(Environment environment, ListableBeanFactory beanFactory) {
+        this.environment = environment;
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> mismatches = new ArrayList<>();
+        check(mismatches, "user.replica.urls", environment.containsProperty("user.replica.urls"),
+                ReplicaRoutingConfig.class);
+        check(mismatches, "user.import.file", environment.containsProperty("user.import.file"),
+                UserImportConfig.class);
+        check(mismatches, "user.birth-date-index.enabled", isTrue("user.birth-date-index.enabled"),
+                BirthDateIndexConfig.class);
+        check(mismatches, "user.rate-limit.enabled", isTrue("user.rate-limit.enabled"), RateLimitFilter.class);
+        if (!mismatches.isEmpty())
+            throw new IllegalStateException("Properties fixed when this build was AOT-processed differ at runtime: "
+                    + String.join(", ", mismatches) + ". Rebuild with them, or run without -Dspring.aot.enabled");
+    }
+
+    private boolean isTrue(String property) {
+        return environment.getProperty(property, Boolean.class, false);
+    }
+
+    private void check(List<String> mismatches, String property, boolean wanted, Class<?> beanType) {
+        if (wanted != (beanFactory.getBeanNamesForType(beanType, false, false).length > 0))
+            mismatches.add(property);
+    }
+}
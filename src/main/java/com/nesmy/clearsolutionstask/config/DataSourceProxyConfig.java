@@ -0,0 +1,34 @@
+package com.nesmy.clearsolutionstask.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Replaces spring.jpa.show-sql: statements are no longer echoed, only the slow ones are reported.
+@Configuration
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(
+            @Value("${user.sql.slow-query.threshold-ms}") long thresholdMs,
+            @Value("${user.sql.slow-query.sample-rate}") double sampleRate,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource)
+                    return bean;
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(new SlowQueryListener(thresholdMs, sampleRate, meterRegistry))
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.nesmy.clearsolutionstask.config;
+
+import com.nesmy.clearsolutionstask.repository.EmailFilter;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EmailFilterConfig {
+
+    @Bean
+    public EmailFilter emailFilter(UserRepository userRepository,
+                                   @Value("${user.email-filter.expected-insertions}") long expectedInsertions,
+                                   @Value("${user.email-filter.false-positive-rate}") double falsePositiveRate,
+                                   @Value("${user.batch.size}") int pageSize) {
+        EmailFilter filter = new EmailFilter(expectedInsertions, falsePositiveRate);
+        userRepository.scanFields(Set.of("email"), pageSize, row -> filter.put(row.get("email", String.class)));
+        return filter;
+    }
+}
@@ -0,0 +1,81 @@
+package com.nesmy.clearsolutionstask.config;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.WebContentInterceptor;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Cache-Control on GET and HEAD responses, per user.http-cache.endpoints policy; the most specific path wins, so
+// /users/count gets its own policy rather than the one for /users/{id}.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(HttpCacheProperties.class)
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+    private final HttpCacheProperties properties;
+
+    @Autowired
+    public HttpCacheConfig(HttpCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        List<Map.Entry<PathPattern, CacheControl>> mappings = new ArrayList<>();
+        WebContentInterceptor interceptor = new WebContentInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                    throws ServletException {
+                // POST /users shares its path with the range read
+                boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+                return !read || super.preHandle(request, response, handler);
+            }
+
+            // the interceptor's own lookup takes the first match in no particular order
+            @Override
+            protected CacheControl lookupCacheControl(PathContainer path) {
+                for (Map.Entry<PathPattern, CacheControl> mapping : mappings) {
+                    if (mapping.getKey().matches(path))
+                        return mapping.getValue();
+                }
+                return null;
+            }
+        };
+        properties.getEndpoints().values().forEach(policy -> {
+            CacheControl cacheControl = toCacheControl(policy);
+            for (String path : policy.getPaths()) {
+                mappings.add(Map.entry(PathPatternParser.defaultInstance.parse(path), cacheControl));
+                interceptor.addCacheMapping(cacheControl, path);
+            }
+        });
+        mappings.sort(Map.Entry.comparingByKey(PathPattern.SPECIFICITY_COMPARATOR));
+        registry.addInterceptor(interceptor);
+    }
+
+    private static CacheControl toCacheControl(HttpCacheProperties.Policy policy) {
+        CacheControl cacheControl;
+        if (policy.isNoStore())
+            return CacheControl.noStore();
+        if (policy.isNoCache())
+            cacheControl = CacheControl.noCache();
+        else
+            cacheControl = CacheControl.maxAge(Duration.ofSeconds(policy.getMaxAgeSeconds()));
+        return policy.isCachePrivate() ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+    }
+}
@@ -0,0 +1,71 @@
+package com.nesmy.clearsolutionstask.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "user.http-cache")
+public class HttpCacheProperties {
+
+    private Map<String, Policy> endpoints = new LinkedHashMap<>();
+
+    public Map<String, Policy> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Policy> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public static class Policy {
+
+        private List<String> paths = new ArrayList<>();
+        private long maxAgeSeconds;
+        private boolean noCache;
+        private boolean noStore;
+        private boolean cachePrivate = true;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public long getMaxAgeSeconds() {
+            return maxAgeSeconds;
+        }
+
+        public void setMaxAgeSeconds(long maxAgeSeconds) {
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+
+        public boolean isNoCache() {
+            return noCache;
+        }
+
+        public void setNoCache(boolean noCache) {
+            this.noCache = noCache;
+        }
+
+        public boolean isNoStore() {
+            return noStore;
+        }
+
+        public void setNoStore(boolean noStore) {
+            this.noStore = noStore;
+        }
+
+        public boolean isCachePrivate() {
+            return cachePrivate;
+        }
+
+        public void setCachePrivate(boolean cachePrivate) {
+            this.cachePrivate = cachePrivate;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.nesmy.clearsolutionstask.config;
+
+import com.nesmy.clearsolutionstask.dto.ApiErrorDTO;
+import com.nesmy.clearsolutionstask.dto.BatchRejectionDTO;
+import com.nesmy.clearsolutionstask.dto.BatchResultDTO;
+import com.nesmy.clearsolutionstask.dto.BirthYearCountDTO;
+import com.nesmy.clearsolutionstask.dto.BulkDeleteResultDTO;
+import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.dto.ImportResultDTO;
+import com.nesmy.clearsolutionstask.dto.PageDTO;
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.utils.DataDTOValueExtractor;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+// Reflection and resources the native image cannot find on its own: types Jackson reads or writes outside of
+// controller signatures (filters, the change sink, imports, generic DataDTO payloads), the ServiceLoader-registered
+// value extractor and the Flyway scripts.
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                User.class, DataDTO.class, PageDTO.class, ApiErrorDTO.class, BatchResultDTO.class,
+                BatchRejectionDTO.class, BulkDeleteResultDTO.class, BirthYearCountDTO.class, ImportResultDTO.class,
+                UserChangeDTO.class);
+        hints.reflection().registerType(DataDTOValueExtractor.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources()
+                .registerPattern("META-INF/services/jakarta.validation.valueextraction.ValueExtractor")
+                .registerPattern("db/migration/*/*.sql");
+    }
+}
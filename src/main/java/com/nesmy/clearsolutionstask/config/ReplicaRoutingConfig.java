@@ -0,0 +1,61 @@
+package com.nesmy.clearsolutionstask.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Only with user.replica.urls set: the one DataSource bean routes between the primary pool (spring.datasource.*)
+// and a read-only pool per replica URL. All pools share the spring.datasource.hikari.* settings and credentials.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "user.replica.urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 @Value("${user.replica.urls}") List<String> replicaUrls,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<Object, Object> pools = new HashMap<>();
+        pools.put(ReplicaRoutingDataSource.PRIMARY,
+                pool(properties, environment, properties.determineUrl(), "primary", meterRegistry));
+        String[] replicas = new String[replicaUrls.size()];
+        for (int i = 0; i < replicas.length; i++) {
+            replicas[i] = "replica-" + (i + 1);
+            HikariDataSource replica = pool(properties, environment, replicaUrls.get(i), replicas[i], meterRegistry);
+            replica.setReadOnly(true);
+            pools.put(replicas[i], replica);
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicas);
+        routing.setTargetDataSources(pools);
+        routing.setDefaultTargetDataSource(pools.get(ReplicaRoutingDataSource.PRIMARY));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url,
+                                         String name, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        // the pools are not beans, so the usual hikaricp.* binding does not see them
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return pool;
+    }
+}
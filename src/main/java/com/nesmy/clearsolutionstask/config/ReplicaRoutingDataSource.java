@@ -0,0 +1,42 @@
+package com.nesmy.clearsolutionstask.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Read-only transactions go to the replicas in turn, everything else to the primary. The transaction flag is only
+// set once the transaction has begun, so this has to sit behind a LazyConnectionDataSourceProxy.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final String[] replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(String[] replicas) {
+        this.replicas = replicas;
+    }
+
+    // for the rest of the current request, reads see the primary's latest state
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PINNED.get() != null)
+            return PRIMARY;
+        return replicas[Math.floorMod(next.getAndIncrement(), replicas.length)];
+    }
+}
@@ -0,0 +1,52 @@
+package com.nesmy.clearsolutionstask.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// Every slow statement is counted; only a sample of them is logged, as a single logfmt line without bind values.
+public class SlowQueryListener implements QueryExecutionListener {
+
+    static final String SLOW_QUERIES_METER = "user.sql.slow";
+
+    private static final Logger log = LoggerFactory.getLogger("com.nesmy.clearsolutionstask.sql.slow");
+
+    private final long thresholdMs;
+    private final double sampleRate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SlowQueryListener(long thresholdMs, double sampleRate, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.thresholdMs = thresholdMs;
+        this.sampleRate = sampleRate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMs = execInfo.getElapsedTime();
+        if (elapsedMs < thresholdMs)
+            return;
+        meterRegistry.ifAvailable(registry -> registry.counter(SLOW_QUERIES_METER).increment());
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)
+            return;
+        String sql = queryInfoList.stream()
+                .map(QueryInfo::getQuery)
+                .collect(Collectors.joining("; "))
+                .replace('"', '\'');
+        log.warn("slow_query elapsed_ms={} threshold_ms={} batch_size={} success={} sample_rate={} sql=\"{}\"",
+                elapsedMs, thresholdMs, execInfo.isBatch() ? execInfo.getBatchSize() : 1, execInfo.isSuccess(),
+                sampleRate, sql);
+    }
+}
@@ -0,0 +1,54 @@
+package com.nesmy.clearsolutionstask.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Logs the time from JVM start to ready and the resident memory at that point. With user.startup.exit-when-ready
+// the application exits right after, which is how the CDS training run and the fast-startup report end.
+// Not conditional on that flag: AOT-processed builds fix conditions at build time, and both runs use that build.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StartupReportConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReportConfig.class);
+
+    private final boolean exitWhenReady;
+
+    @Autowired
+    public StartupReportConfig(@Value("${user.startup.exit-when-ready}") boolean exitWhenReady) {
+        this.exitWhenReady = exitWhenReady;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Ready in {} ms, RSS {} MB", ManagementFactory.getRuntimeMXBean().getUptime(), residentMegabytes());
+        if (exitWhenReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    // VmRSS from /proc, -1 where there is none
+    private static long residentMegabytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+        }
+        return -1;
+    }
+}
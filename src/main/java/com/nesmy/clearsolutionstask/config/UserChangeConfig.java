@@ -0,0 +1,26 @@
+package com.nesmy.clearsolutionstask.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.web.service.FileUserChangeSink;
+import com.nesmy.clearsolutionstask.web.service.UserChangeSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+
+// Runs the outbox relay and the change feed ticks; a UserChangeSink bean of its own replaces the file sink.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableScheduling
+public class UserChangeConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(UserChangeSink.class)
+    public UserChangeSink userChangeSink(@Value("${user.changes.sink-file}") Path file, ObjectMapper objectMapper) {
+        return new FileUserChangeSink(file, objectMapper);
+    }
+}
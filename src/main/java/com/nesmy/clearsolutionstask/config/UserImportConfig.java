@@ -0,0 +1,53 @@
+package com.nesmy.clearsolutionstask.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.ImportResultDTO;
+import com.nesmy.clearsolutionstask.utils.UserImportReader;
+import com.nesmy.clearsolutionstask.web.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Local-file mode: started with --user.import.file=<path>, the application imports the file, writes the
+// rejected rows to <path>.rejected.json and exits. Running it again with the same file resumes the import.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "user.import.file")
+public class UserImportConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportConfig.class);
+
+    @Bean
+    public ApplicationRunner userImportRunner(UserService userService, ObjectMapper objectMapper,
+                                              ConfigurableApplicationContext context,
+                                              @Value("${user.import.file}") Path file) {
+        return args -> {
+            String fileName = file.getFileName().toString();
+            ImportResultDTO result;
+            try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+                 UserImportReader users = fileName.endsWith(".csv")
+                         ? UserImportReader.csv(inputStream)
+                         : UserImportReader.ndjson(objectMapper, inputStream)) {
+                // the file name is the import id, cut to the width of user_imports.import_id
+                result = userService.importAll(users, fileName.substring(0, Math.min(fileName.length(), 64)));
+            }
+            Path report = file.resolveSibling(fileName + ".rejected.json");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), result);
+            log.info("Imported {}: created={} rejected={} skipped={} report={}",
+                    file, result.getCreated(), result.getRejectedCount(), result.getSkipped(), report);
+            System.exit(SpringApplication.exit(context, () -> result.getRejectedCount() == 0 ? 0 : 1));
+        };
+    }
+}
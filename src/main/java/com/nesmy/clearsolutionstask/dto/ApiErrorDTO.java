@@ -6,7 +6,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class ApiErrorDTO {
-    private List<ApiError> errors = new ArrayList<>();
+    private List<ApiError> errors;
+
+    public ApiErrorDTO() {
+        this(new ArrayList<>());
+    }
+
+    public ApiErrorDTO(List<ApiError> errors) {
+        this.errors = errors;
+    }
 
     public List<ApiError> getErrors() {
         return errors;
@@ -0,0 +1,26 @@
+package com.nesmy.clearsolutionstask.dto;
+
+import com.nesmy.clearsolutionstask.exceptions.ApiError;
+
+import java.util.List;
+
+public class BatchRejectionDTO extends ApiErrorDTO {
+
+    private long index;
+
+    public BatchRejectionDTO(long index, List<ApiError> errors) {
+        this.index = index;
+        setErrors(errors);
+    }
+
+    public BatchRejectionDTO() {
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+}
@@ -0,0 +1,26 @@
+package com.nesmy.clearsolutionstask.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchResultDTO {
+
+    private long created;
+    private List<BatchRejectionDTO> rejected = new ArrayList<>();
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public List<BatchRejectionDTO> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<BatchRejectionDTO> rejected) {
+        this.rejected = rejected;
+    }
+}
@@ -0,0 +1,31 @@
+package com.nesmy.clearsolutionstask.dto;
+
+public class BirthYearCountDTO {
+
+    private Integer birthYear;
+    private Long count;
+
+    public BirthYearCountDTO(Integer birthYear, Long count) {
+        this.birthYear = birthYear;
+        this.count = count;
+    }
+
+    public BirthYearCountDTO() {
+    }
+
+    public Integer getBirthYear() {
+        return birthYear;
+    }
+
+    public void setBirthYear(Integer birthYear) {
+        this.birthYear = birthYear;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,32 @@
+package com.nesmy.clearsolutionstask.dto;
+
+public class BulkDeleteResultDTO {
+
+    private Long requested;
+    private long deleted;
+    private int chunks;
+
+    public Long getRequested() {
+        return requested;
+    }
+
+    public void setRequested(Long requested) {
+        this.requested = requested;
+    }
+
+    public long getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(long deleted) {
+        this.deleted = deleted;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+}
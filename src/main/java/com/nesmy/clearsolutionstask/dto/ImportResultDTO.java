@@ -0,0 +1,32 @@
+package com.nesmy.clearsolutionstask.dto;
+
+public class ImportResultDTO extends BatchResultDTO {
+
+    private long skipped;
+    private long rejectedCount;
+    private long checkpoint;
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(long checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+}
@@ -0,0 +1,24 @@
+package com.nesmy.clearsolutionstask.dto;
+
+import java.util.List;
+
+public class PageDTO<T> extends DataDTO<List<T>> {
+
+    private String nextCursor;
+
+    public PageDTO(List<T> data, String nextCursor) {
+        super(data);
+        this.nextCursor = nextCursor;
+    }
+
+    public PageDTO() {
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,91 @@
+package com.nesmy.clearsolutionstask.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nesmy.clearsolutionstask.entity.User;
+
+import java.time.Instant;
+import java.util.List;
+
+// A compact change event: consumers that need the new values read the user, deletes carry no version.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserChangeDTO {
+
+    public enum Operation { CREATED, UPDATED, DELETED }
+
+    private Long changeId;
+    private Long userId;
+    private Operation operation;
+    private Long version;
+    private List<String> fields;
+    private Instant changedAt;
+
+    public UserChangeDTO(Long userId, Operation operation, Long version, List<String> fields) {
+        this.userId = userId;
+        this.operation = operation;
+        this.version = version;
+        this.fields = fields;
+    }
+
+    public UserChangeDTO() {
+    }
+
+    public static UserChangeDTO created(User user) {
+        return new UserChangeDTO(user.getUserId(), Operation.CREATED, user.getVersion(), null);
+    }
+
+    public static UserChangeDTO updated(Long userId, long version, List<String> fields) {
+        return new UserChangeDTO(userId, Operation.UPDATED, version, fields);
+    }
+
+    public static UserChangeDTO deleted(Long userId) {
+        return new UserChangeDTO(userId, Operation.DELETED, null, null);
+    }
+
+    public Long getChangeId() {
+        return changeId;
+    }
+
+    public void setChangeId(Long changeId) {
+        this.changeId = changeId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(Operation operation) {
+        this.operation = operation;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public void setFields(List<String> fields) {
+        this.fields = fields;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -14,11 +14,14 @@ import java.util.Objects;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    // pooled optimizer: one sequence call per 50 ids, which lets Hibernate batch inserts
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long userId;
 
     @Email(message = "Invalid email format.")
     @NotBlank(message = "Email is required.")
+    @Column(unique = true)
     private String email;
 
     @NotBlank(message = "First name is required.")
@@ -34,6 +37,9 @@ public class User {
     private String address;
     private String phoneNumber;
 
+    @Version
+    private Long version;
+
     public User() {
     }
 
@@ -56,6 +62,11 @@ public class User {
         this.phoneNumber = phoneNumber;
     }
 
+    public User(User other) {
+        this(other.userId, other.email, other.firstName, other.lastName, other.birthDate, other.address, other.phoneNumber);
+        this.version = other.version;
+    }
+
     public Long getUserId() {
         return userId;
     }
@@ -112,6 +123,14 @@ public class User {
         this.phoneNumber = phoneNumber;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
 
     @Override
     public boolean equals(Object o) {
@@ -8,10 +8,11 @@ import java.util.List;
 
 public class ApiException extends ResponseStatusException {
 
-    private List<ApiError> apiErrors = new ArrayList<>();
+    private final List<ApiError> apiErrors;
 
     public ApiException(HttpStatusCode status, String reason) {
         super(status, reason);
+        this.apiErrors = new ArrayList<>();
     }
 
     public ApiException(HttpStatusCode status, List<ApiError> apiErrors) {
@@ -23,8 +24,9 @@ public class ApiException extends ResponseStatusException {
         return apiErrors;
     }
 
-    public void setApiErrors(List<ApiError> apiErrors) {
-        this.apiErrors = apiErrors;
+    // an ApiException is a response to the client, never logged, so walking the stack would be wasted work
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
     }
-
 }
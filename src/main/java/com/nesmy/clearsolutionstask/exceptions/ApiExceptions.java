@@ -0,0 +1,61 @@
+package com.nesmy.clearsolutionstask.exceptions;
+
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+// The fixed rejections carry nothing from the request, so each is built once and thrown as often as needed.
+// Throw them outside try-with-resources, where a suppressed exception could be attached to the shared instance.
+public final class ApiExceptions {
+
+    public static final ApiException NO_DATA_SUBMITTED =
+            fixed(HttpStatus.BAD_REQUEST, "", StringCodeConstants.NO_DATA_SUBMITTED);
+    public static final ApiException KEY_FIELD_PARAMETERS_MISMATCH =
+            fixed(HttpStatus.BAD_REQUEST, "userId", StringCodeConstants.KEY_FIELD_PARAMETERS_MISMATCH);
+    public static final ApiException INVALID_CURSOR =
+            fixed(HttpStatus.BAD_REQUEST, "cursor", StringCodeConstants.INVALID_CURSOR);
+    public static final ApiException INVALID_PAGE_SIZE =
+            fixed(HttpStatus.BAD_REQUEST, "limit", StringCodeConstants.INVALID_PAGE_SIZE);
+    public static final ApiException INCOMPLETE_BIRTH_DATE_RANGE =
+            fixed(HttpStatus.BAD_REQUEST, "", StringCodeConstants.INCOMPLETE_BIRTH_DATE_RANGE);
+    public static final ApiException UNSUPPORTED_STREAM_FORMAT =
+            fixed(HttpStatus.BAD_REQUEST, "stream", StringCodeConstants.UNSUPPORTED_STREAM_FORMAT);
+    public static final ApiException UNSUPPORTED_EXPORT_FORMAT =
+            fixed(HttpStatus.BAD_REQUEST, "format", StringCodeConstants.UNSUPPORTED_STREAM_FORMAT);
+    public static final ApiException MALFORMED_BATCH =
+            fixed(HttpStatus.BAD_REQUEST, "", StringCodeConstants.MALFORMED_BATCH);
+    public static final ApiException INVALID_IMPORT_ID =
+            fixed(HttpStatus.BAD_REQUEST, "importId", StringCodeConstants.INVALID_IMPORT_ID);
+    public static final ApiException INVALID_CHANGES_CURSOR =
+            fixed(HttpStatus.BAD_REQUEST, "since", StringCodeConstants.INVALID_CURSOR);
+    public static final ApiException INVALID_AGE =
+            fixed(HttpStatus.BAD_REQUEST, "age", StringCodeConstants.INVALID_AGE);
+    public static final ApiException UNKNOWN_FIELD =
+            fixed(HttpStatus.BAD_REQUEST, "fields", StringCodeConstants.UNKNOWN_FIELD);
+    public static final ApiException INVALID_DELETE_SELECTOR =
+            fixed(HttpStatus.BAD_REQUEST, "", StringCodeConstants.INVALID_DELETE_SELECTOR);
+    public static final ApiException USER_NOT_FOUND =
+            fixed(HttpStatus.NOT_FOUND, "userId", StringCodeConstants.NOT_FOUND);
+    public static final ApiException EMAIL_NOT_FOUND =
+            fixed(HttpStatus.NOT_FOUND, "email", StringCodeConstants.NOT_FOUND);
+    public static final ApiException DUPLICATE_EMAIL =
+            fixed(HttpStatus.CONFLICT, "email", StringCodeConstants.DUPLICATE_EMAIL);
+    public static final ApiException VERSION_CONFLICT =
+            fixed(HttpStatus.CONFLICT, "version", StringCodeConstants.VERSION_MISMATCH);
+    public static final ApiException VERSION_MISMATCH =
+            fixed(HttpStatus.PRECONDITION_FAILED, "version", StringCodeConstants.VERSION_MISMATCH);
+    public static final ApiException CHANGES_PRUNED =
+            fixed(HttpStatus.GONE, "since", StringCodeConstants.CHANGES_PRUNED);
+    public static final ApiException START_DATE_IS_NOT_BEFORE_END_DATE =
+            fixed(HttpStatus.UNPROCESSABLE_ENTITY, "", StringCodeConstants.START_DATE_IS_NOT_BEFORE_END_DATE);
+    public static final ApiException BIRTHDATE_IS_LESS_THAN_18 =
+            fixed(HttpStatus.UNPROCESSABLE_ENTITY, "birthDate", StringCodeConstants.BIRTHDATE_IS_LESS_THAN_18);
+
+    private ApiExceptions() {
+    }
+
+    private static ApiException fixed(HttpStatus status, String fieldName, String message) {
+        return new ApiException(status, List.of(new ApiError(fieldName, message)));
+    }
+}
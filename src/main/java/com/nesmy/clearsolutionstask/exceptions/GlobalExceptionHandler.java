@@ -1,34 +1,107 @@
 package com.nesmy.clearsolutionstask.exceptions;
 
 import com.nesmy.clearsolutionstask.dto.ApiErrorDTO;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Path;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    static final String ERRORS_METER = "user.errors";
+    static final String CONSTRAINT_VIOLATION = "CONSTRAINT_VIOLATION";
+    static final String OTHER = "OTHER";
+
+    // message -> constant name, so the code tag stays a short, fixed set of values
+    private static final Map<String, String> ERROR_CODES = errorCodes();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<HttpStatusCode, Map<String, Counter>> errorCounters = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ApiError>> violationErrors = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(ApiException.class)
     public ResponseEntity<ApiErrorDTO> handleApiException(ApiException apie) {
-        ApiErrorDTO apiErrorDTO = new ApiErrorDTO();
-        apiErrorDTO.setErrors(apie.getApiErrors());
-        return new ResponseEntity<>(apiErrorDTO, apie.getStatusCode());
+        List<ApiError> apiErrors = apie.getApiErrors();
+        for (ApiError apiError : apiErrors) {
+            countError(ERROR_CODES.getOrDefault(apiError.getMessage(), OTHER), apie.getStatusCode());
+        }
+        return new ResponseEntity<>(new ApiErrorDTO(apiErrors), apie.getStatusCode());
     }
 
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ApiErrorDTO>
     handleValidationExceptions(ConstraintViolationException ex) {
-        ApiErrorDTO apiErrorDTO = new ApiErrorDTO();
-        ex.getConstraintViolations().forEach(cve -> {
-            ApiError apiError = new ApiError();
-            String[] path = cve.getPropertyPath().toString().split("\\.");
-            apiError.setFieldName(path[path.length-1]);
-            apiError.setMessage(cve.getMessageTemplate());
-            apiErrorDTO.getErrors().add(apiError);
-        });
-        return new ResponseEntity<>(apiErrorDTO, HttpStatus.UNPROCESSABLE_ENTITY);
+        Set<ConstraintViolation<?>> violations = ex.getConstraintViolations();
+        List<ApiError> apiErrors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<?> cve : violations) {
+            apiErrors.add(violationError(leafName(cve.getPropertyPath()), cve.getMessageTemplate()));
+            countError(CONSTRAINT_VIOLATION, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        return new ResponseEntity<>(new ApiErrorDTO(apiErrors), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    // "create.body.data.email" -> "email", read from the last node instead of printing and splitting the path
+    private static String leafName(Path path) {
+        String name = null;
+        for (Path.Node node : path) {
+            name = node.getName();
+        }
+        return name == null ? "" : name;
+    }
+
+    // both keys come from constraint metadata, so the cache is bounded by the annotated properties
+    private ApiError violationError(String fieldName, String message) {
+        Map<String, ApiError> byField = violationErrors.computeIfAbsent(message, key -> new ConcurrentHashMap<>());
+        ApiError apiError = byField.get(fieldName);
+        return apiError != null ? apiError : byField.computeIfAbsent(fieldName, key -> new ApiError(key, message));
+    }
+
+    private void countError(String code, HttpStatusCode status) {
+        Map<String, Counter> byCode = errorCounters.computeIfAbsent(status, key -> new ConcurrentHashMap<>());
+        Counter counter = byCode.get(code);
+        if (counter == null)
+            counter = byCode.computeIfAbsent(code, key -> Counter.builder(ERRORS_METER)
+                    .tag("code", key)
+                    .tag("status", String.valueOf(status.value()))
+                    .register(meterRegistry));
+        counter.increment();
+    }
+
+    private static Map<String, String> errorCodes() {
+        Map<String, String> codes = new HashMap<>();
+        for (Field field : StringCodeConstants.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                try {
+                    codes.put((String) field.get(null), field.getName());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return codes;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+package com.nesmy.clearsolutionstask.repository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// (birthDate, userId) pairs kept sorted in two parallel primitive arrays: 12 bytes per user and no boxing.
+// Range counts and id pages are binary searches; writes shift the arrays, which is fine for a read-mostly table.
+public class BirthDateIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private long[] userIds = new long[INITIAL_CAPACITY];
+    private int size;
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long capacityBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) epochDays.length * Integer.BYTES + (long) userIds.length * Long.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count(LocalDate startBirthDate, LocalDate endBirthDate) {
+        int startDay = (int) startBirthDate.toEpochDay();
+        int endDay = (int) endBirthDate.toEpochDay();
+        lock.readLock().lock();
+        try {
+            return position(endDay, Long.MAX_VALUE) - position(startDay, Long.MIN_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // fills the buffers with the entries of the range that follow (afterBirthDate, afterUserId), returns how many
+    public int page(LocalDate startBirthDate, LocalDate endBirthDate, LocalDate afterBirthDate, Long afterUserId,
+                    long[] userIdBuffer, int[] epochDayBuffer) {
+        int endDay = (int) endBirthDate.toEpochDay();
+        lock.readLock().lock();
+        try {
+            int from = position((int) startBirthDate.toEpochDay(), Long.MIN_VALUE);
+            if (afterBirthDate != null)
+                from = Math.max(from, position((int) afterBirthDate.toEpochDay(), afterUserId));
+            int to = Math.min(position(endDay, Long.MAX_VALUE), from + userIdBuffer.length);
+            int count = Math.max(to - from, 0);
+            System.arraycopy(userIds, from, userIdBuffer, 0, count);
+            System.arraycopy(epochDays, from, epochDayBuffer, 0, count);
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // only for input that arrives in (birthDate, userId) order, e.g. while building from a keyset scan
+    public void append(long userId, LocalDate birthDate) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity();
+            epochDays[size] = (int) birthDate.toEpochDay();
+            userIds[size] = userId;
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // for a user that is not indexed yet
+    public void add(long userId, LocalDate birthDate) {
+        lock.writeLock().lock();
+        try {
+            insertEntry(userId, (int) birthDate.toEpochDay());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(long userId, LocalDate birthDate) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(userId);
+            insertEntry(userId, (int) birthDate.toEpochDay());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // one compacting pass instead of a scan per id
+    public void removeAll(Collection<Long> ids) {
+        long[] sortedIds = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+        lock.writeLock().lock();
+        try {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (Arrays.binarySearch(sortedIds, userIds[i]) < 0) {
+                    epochDays[kept] = epochDays[i];
+                    userIds[kept] = userIds[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insertEntry(long userId, int epochDay) {
+        ensureCapacity();
+        int at = position(epochDay, userId);
+        System.arraycopy(epochDays, at, epochDays, at + 1, size - at);
+        System.arraycopy(userIds, at, userIds, at + 1, size - at);
+        epochDays[at] = epochDay;
+        userIds[at] = userId;
+        size++;
+    }
+
+    // entries are ordered by birth date, so an id alone has to be found by a scan
+    private void removeEntry(long userId) {
+        for (int i = 0; i < size; i++) {
+            if (userIds[i] == userId) {
+                System.arraycopy(epochDays, i + 1, epochDays, i, size - i - 1);
+                System.arraycopy(userIds, i + 1, userIds, i, size - i - 1);
+                size--;
+                return;
+            }
+        }
+    }
+
+    // first position whose (epochDay, userId) is greater than the given pair
+    private int position(int epochDay, long userId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay || (epochDays[mid] == epochDay && userIds[mid] <= userId))
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private void ensureCapacity() {
+        if (size == epochDays.length) {
+            int capacity = size + (size >> 1);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.nesmy.clearsolutionstask.repository;
+
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+// The outbox of user changes. Appends join the caller's transaction, so a change is recorded exactly when
+// the user row it describes is committed. They also lock one shared row until that commit: a transaction only
+// takes change ids once every earlier appender has committed or rolled back, so whatever a reader sees is a gap-free
+// prefix of the ids, and a cursor never steps over a change that becomes visible later. That holds on replicas too,
+// which apply commits in order. Appends should be the last statement of their transaction, as the lock is held
+// until it ends.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserChangeRepository {
+
+    public static final String RELAY = "relay";
+    public static final String PRUNED = "pruned";
+
+    private static final RowMapper<UserChangeDTO> CHANGE_MAPPER = (rs, rowNum) -> {
+        String fields = rs.getString("fields");
+        UserChangeDTO change = new UserChangeDTO(rs.getLong("user_id"),
+                UserChangeDTO.Operation.valueOf(rs.getString("operation")),
+                rs.getObject("version", Long.class),
+                fields == null ? null : Arrays.asList(fields.split(",")));
+        change.setChangeId(rs.getLong("change_id"));
+        change.setChangedAt(rs.getTimestamp("changed_at").toInstant());
+        return change;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void append(List<UserChangeDTO> changes) {
+        if (changes.isEmpty())
+            return;
+        jdbcTemplate.queryForObject("select id from user_change_append_lock where id = 1 for update", Integer.class);
+        Timestamp changedAt = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "insert into user_changes (user_id, operation, version, fields, changed_at) values (?, ?, ?, ?, ?)",
+                changes, changes.size(), (ps, change) -> {
+                    ps.setLong(1, change.getUserId());
+                    ps.setString(2, change.getOperation().name());
+                    ps.setObject(3, change.getVersion());
+                    ps.setString(4, change.getFields() == null ? null : String.join(",", change.getFields()));
+                    ps.setTimestamp(5, changedAt);
+                });
+    }
+
+    public List<UserChangeDTO> findAfter(long changeId, int limit) {
+        return jdbcTemplate.query("select change_id, user_id, operation, version, fields, changed_at from user_changes "
+                        + "where change_id > ? order by change_id limit ?",
+                CHANGE_MAPPER, changeId, limit);
+    }
+
+    public long findLatestId() {
+        Long latest = jdbcTemplate.queryForObject("select max(change_id) from user_changes", Long.class);
+        return latest == null ? 0 : latest;
+    }
+
+    public long findOffset(String consumer) {
+        return jdbcTemplate.queryForObject(
+                "select last_change_id from user_change_offsets where consumer = ?", Long.class, consumer);
+    }
+
+    // holds the row until the transaction ends, so only one instance relays at a time
+    public long lockOffset(String consumer) {
+        return jdbcTemplate.queryForObject(
+                "select last_change_id from user_change_offsets where consumer = ? for update", Long.class, consumer);
+    }
+
+    public void saveOffset(String consumer, long changeId) {
+        jdbcTemplate.update("update user_change_offsets set last_change_id = ? where consumer = ?", changeId, consumer);
+    }
+
+    // deletes relayed changes older than the cutoff and returns the id pruned through, or 0 if none were
+    public long prune(long relayedThrough, Instant before) {
+        Long through = jdbcTemplate.queryForObject(
+                "select max(change_id) from user_changes where change_id <= ? and changed_at < ?",
+                Long.class, relayedThrough, Timestamp.from(before));
+        if (through == null)
+            return 0;
+        jdbcTemplate.update("delete from user_changes where change_id <= ?", through);
+        return through;
+    }
+}
@@ -0,0 +1,46 @@
+package com.nesmy.clearsolutionstask.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+// Plain JDBC on purpose: rows go from the result set to the caller without an entity or a persistence context.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserExportRepository {
+
+    public static final String COLUMNS = "user_id, email, first_name, last_name, birth_date, address, phone_number";
+
+    private static final String SELECT = "select " + COLUMNS + " from users";
+    private static final String SELECT_BY_BIRTH_DATE = SELECT + " where birth_date between ? and ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    @Autowired
+    public UserExportRepository(JdbcTemplate jdbcTemplate, @Value("${user.export.fetch-size}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    // forward-only cursor: PostgreSQL only fetches in batches of fetchSize inside a transaction
+    public void export(LocalDate startDate, LocalDate endDate, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(startDate == null ? SELECT : SELECT_BY_BIRTH_DATE,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            if (startDate != null) {
+                statement.setObject(1, startDate);
+                statement.setObject(2, endDate);
+            }
+            return statement;
+        }, handler);
+    }
+}
@@ -0,0 +1,25 @@
+package com.nesmy.clearsolutionstask.repository;
+
+import com.nesmy.clearsolutionstask.utils.KeysetCursor;
+import jakarta.persistence.Tuple;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Column-level reads and writes of users that never go through a managed entity.
+public interface UserFieldsRepository {
+
+    List<Tuple> findFieldsByBirthDateBetween(LocalDate startDate, LocalDate endDate, Collection<String> fields,
+                                             KeysetCursor after, int limit);
+
+    List<Tuple> findFieldsById(Long id, Collection<String> fields);
+
+    // whole-table keyset scan in (birthDate, userId) order, one page per query; used to warm in-memory structures
+    void scanFields(Collection<String> fields, int pageSize, Consumer<Tuple> consumer);
+
+    // UPDATE users SET <values>, version = version + 1 WHERE user_id = ? AND version = ?
+    int updateFields(Long id, long version, Map<String, Object> values);
+}
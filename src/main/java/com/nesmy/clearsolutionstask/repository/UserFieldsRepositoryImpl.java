@@ -0,0 +1,105 @@
+package com.nesmy.clearsolutionstask.repository;
+
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.utils.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findFieldsByBirthDateBetween(LocalDate startDate, LocalDate endDate, Collection<String> fields,
+                                                    KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        Path<LocalDate> birthDate = user.get("birthDate");
+        Path<Long> userId = user.get("userId");
+
+        Predicate where = cb.between(birthDate, startDate, endDate);
+        if (after != null) {
+            where = cb.and(where, cb.or(
+                    cb.greaterThan(birthDate, after.getBirthDate()),
+                    cb.and(cb.equal(birthDate, after.getBirthDate()), cb.greaterThan(userId, after.getUserId()))));
+        }
+        query.multiselect(select(user, fields))
+                .where(where)
+                .orderBy(cb.asc(birthDate), cb.asc(userId));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Tuple> findFieldsById(Long id, Collection<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        query.multiselect(select(user, fields))
+                .where(cb.equal(user.get("userId"), id));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public void scanFields(Collection<String> fields, int pageSize, Consumer<Tuple> consumer) {
+        Set<String> selected = new LinkedHashSet<>(fields);
+        selected.add("birthDate");
+        selected.add("userId");
+        KeysetCursor after = null;
+        List<Tuple> rows;
+        do {
+            rows = findFieldsByBirthDateBetween(FIRST_DATE, LAST_DATE, selected, after, pageSize);
+            rows.forEach(consumer);
+            if (!rows.isEmpty()) {
+                Tuple last = rows.get(rows.size() - 1);
+                after = new KeysetCursor(last.get("birthDate", LocalDate.class), last.get("userId", Long.class));
+            }
+        } while (rows.size() == pageSize);
+    }
+
+    @Override
+    @Transactional
+    public int updateFields(Long id, long version, Map<String, Object> values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        values.forEach((field, value) -> {
+            Path<Object> path = user.get(field);
+            if (value == null)
+                update.<Object>set(path, cb.nullLiteral(path.getJavaType()));
+            else
+                update.set(path, value);
+        });
+        Path<Long> userVersion = user.get("version");
+        update.set(userVersion, version + 1)
+                .where(cb.equal(user.get("userId"), id), cb.equal(userVersion, version));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private List<Selection<?>> select(Root<User> user, Collection<String> fields) {
+        return fields.stream()
+                .<Selection<?>>map(field -> user.get(field).alias(field))
+                .toList();
+    }
+}
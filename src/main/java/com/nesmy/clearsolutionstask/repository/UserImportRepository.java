@@ -0,0 +1,31 @@
+package com.nesmy.clearsolutionstask.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserImportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long findCheckpoint(String importId) {
+        List<Long> checkpoints = jdbcTemplate.queryForList(
+                "select checkpoint from user_imports where import_id = ?", Long.class, importId);
+        return checkpoints.isEmpty() ? 0 : checkpoints.get(0);
+    }
+
+    public void saveCheckpoint(String importId, long checkpoint) {
+        if (jdbcTemplate.update("update user_imports set checkpoint = ? where import_id = ?", checkpoint, importId) == 0)
+            jdbcTemplate.update("insert into user_imports (import_id, checkpoint) values (?, ?)", importId, checkpoint);
+    }
+}
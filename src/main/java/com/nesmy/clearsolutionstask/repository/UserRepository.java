@@ -1,14 +1,99 @@
 package com.nesmy.clearsolutionstask.repository;
 
+import com.nesmy.clearsolutionstask.dto.BirthYearCountDTO;
 import com.nesmy.clearsolutionstask.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserFieldsRepository {
+
+    String STREAM_FETCH_SIZE = "500";
 
     List<User> findByBirthDateBetween(LocalDate startDate, LocalDate endDate);
+
+    long countByBirthDateBetween(LocalDate startDate, LocalDate endDate);
+
+    Optional<User> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    @Query("select u from users u where u.birthDate between :startDate and :endDate " +
+            "order by u.birthDate, u.userId")
+    List<User> findFirstPageByBirthDateBetween(@Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate,
+                                               Pageable pageable);
+
+    @Query("select u from users u where u.birthDate between :startDate and :endDate " +
+            "and (u.birthDate > :afterBirthDate or (u.birthDate = :afterBirthDate and u.userId > :afterUserId)) " +
+            "order by u.birthDate, u.userId")
+    List<User> findNextPageByBirthDateBetween(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate,
+                                              @Param("afterBirthDate") LocalDate afterBirthDate,
+                                              @Param("afterUserId") Long afterUserId,
+                                              Pageable pageable);
+
+    @Query("select u from users u where u.birthDate <= :cutoff order by u.birthDate, u.userId")
+    List<User> findFirstPageByBirthDateNotAfter(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+
+    @Query("select u from users u where u.birthDate <= :cutoff " +
+            "and (u.birthDate > :afterBirthDate or (u.birthDate = :afterBirthDate and u.userId > :afterUserId)) " +
+            "order by u.birthDate, u.userId")
+    List<User> findNextPageByBirthDateNotAfter(@Param("cutoff") LocalDate cutoff,
+                                               @Param("afterBirthDate") LocalDate afterBirthDate,
+                                               @Param("afterUserId") Long afterUserId,
+                                               Pageable pageable);
+
+    @Query("select new com.nesmy.clearsolutionstask.dto.BirthYearCountDTO(year(u.birthDate), count(u)) " +
+            "from users u where u.birthDate between :startDate and :endDate " +
+            "group by year(u.birthDate) order by year(u.birthDate)")
+    List<BirthYearCountDTO> countByBirthYear(@Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    @Query("select u.userId from users u where u.birthDate between :startDate and :endDate " +
+            "order by u.birthDate, u.userId")
+    List<Long> findIdsByBirthDateBetween(@Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate,
+                                         Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from users u where u.userId = :id")
+    int deleteByUserId(@Param("id") Long id);
+
+    // the ids that still exist, locked until the transaction ends so that deleting them reports exactly these
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u.userId from users u where u.userId in :ids")
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("delete from users u where u.userId in :ids")
+    int deleteByUserIdIn(@Param("ids") Collection<Long> ids);
+
+    // forward-only cursor: PostgreSQL only honours the fetch size inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from users u where u.birthDate between :startDate and :endDate " +
+            "order by u.birthDate, u.userId")
+    Stream<User> streamByBirthDateBetween(@Param("startDate") LocalDate startDate,
+                                          @Param("endDate") LocalDate endDate);
 }
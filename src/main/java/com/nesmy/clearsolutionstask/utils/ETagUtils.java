@@ -0,0 +1,67 @@
+package com.nesmy.clearsolutionstask.utils;
+
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.exceptions.ApiExceptions;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ETagUtils {
+
+    private ETagUtils() {
+
+    }
+
+    public static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, User user) {
+        if (user != null && user.getVersion() != null)
+            builder.eTag("\"" + user.getVersion() + "\"");
+        return builder;
+    }
+
+    // Every row's id and version, so any insert, delete or update in the list changes the tag. Spring answers
+    // a matching If-None-Match with 304 before the body is serialized. The tag is weak because Tomcat does not
+    // compress responses with a strong one, and lists are what compression is for.
+    public static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, List<User> users) {
+        long hash = users.size();
+        for (User user : users) {
+            hash = mix(hash + user.getUserId());
+            hash = mix(hash + (user.getVersion() == null ? -1 : user.getVersion()));
+        }
+        return builder.eTag("W/\"" + Long.toHexString(hash) + "\"");
+    }
+
+    // the MurmurHash3 finalizer, so that nearby ids and versions land far apart
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        return value ^ value >>> 33;
+    }
+
+    // If-Match: "3" or a list of them, any of which may match; * pins no version. If-Match compares strongly,
+    // so a weak W/ tag never matches, nor does any other entry that is not a version; a header with no version at
+    // all is a failed precondition
+    public static Set<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*"))
+            return null;
+        Set<Long> versions = new HashSet<>();
+        for (String entry : ifMatch.split(",")) {
+            String value = entry.trim();
+            if (value.startsWith("W/"))
+                continue;
+            if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\""))
+                value = value.substring(1, value.length() - 1);
+            try {
+                versions.add(Long.valueOf(value));
+            } catch (NumberFormatException e) {
+                // some other tag, e.g. one of a list's
+            }
+        }
+        if (versions.isEmpty())
+            throw ApiExceptions.VERSION_MISMATCH;
+        return versions;
+    }
+}
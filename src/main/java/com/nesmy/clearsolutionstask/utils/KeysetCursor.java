@@ -0,0 +1,47 @@
+package com.nesmy.clearsolutionstask.utils;
+
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.exceptions.ApiExceptions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+public class KeysetCursor {
+
+    private final LocalDate birthDate;
+    private final Long userId;
+
+    public KeysetCursor(LocalDate birthDate, Long userId) {
+        this.birthDate = birthDate;
+        this.userId = userId;
+    }
+
+    public static KeysetCursor after(User user) {
+        return new KeysetCursor(user.getBirthDate(), user.getUserId());
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new KeysetCursor(LocalDate.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw ApiExceptions.INVALID_CURSOR;
+        }
+    }
+
+    public String encode() {
+        String raw = birthDate + ":" + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,84 @@
+package com.nesmy.clearsolutionstask.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Concurrent calls with the same key share one execution: the first caller runs it, the rest wait for its
+// result or exception. With a cache TTL, results are also reused for that long after the call completes.
+public class SingleFlight<K, V> {
+
+    public static final String CALLS_METER = "user.single-flight.calls";
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<K, V> recent;
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter cached;
+
+    public SingleFlight(String operation, Duration cacheTtl, long cacheSize, MeterRegistry meterRegistry) {
+        this.recent = cacheTtl.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheSize)
+                .build();
+        this.executed = counter(meterRegistry, operation, "executed");
+        this.coalesced = counter(meterRegistry, operation, "coalesced");
+        this.cached = counter(meterRegistry, operation, "cached");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String operation, String result) {
+        return Counter.builder(CALLS_METER)
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> call) {
+        if (recent != null) {
+            V value = recent.getIfPresent(key);
+            if (value != null) {
+                cached.increment();
+                return value;
+            }
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            return join(leader);
+        }
+        executed.increment();
+        try {
+            V value = call.get();
+            // cached before the flight ends, so no caller falls between the two
+            if (recent != null && value != null)
+                recent.put(key, value);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (e.getCause() instanceof Error error)
+                throw error;
+            throw e;
+        }
+    }
+}
@@ -11,4 +11,23 @@ public class StringCodeConstants {
     public static final String NO_DATA_SUBMITTED = "No data is submitted.";
 
     public static final String KEY_FIELD_PARAMETERS_MISMATCH = "Key field parameters mismatch.";
+    public static final String INVALID_CURSOR = "Cursor is invalid.";
+    public static final String INVALID_PAGE_SIZE = "Page size is out of allowed range.";
+    public static final String INCOMPLETE_BIRTH_DATE_RANGE = "Both start and end birth dates must be given.";
+    public static final String UNSUPPORTED_STREAM_FORMAT = "Stream format is not supported.";
+    public static final String MALFORMED_BATCH = "Batch body is malformed.";
+    public static final String MALFORMED_VALUE = "Value cannot be read.";
+    public static final String INVALID_IMPORT_ID = "Import id must be 1 to 64 characters.";
+    public static final String INVALID_AGE = "Age must be between 0 and 150.";
+    public static final String UNKNOWN_FIELD = "Field is unknown.";
+    public static final String SERVICE_OVERLOADED = "Service is overloaded, retry later.";
+    public static final String RATE_LIMIT_EXCEEDED = "Rate limit is exceeded, retry later.";
+    public static final String INVALID_DELETE_SELECTOR = "Either ids or a birth date range must be given.";
+    public static final String DUPLICATE_EMAIL = "Email is already in use.";
+    public static final String VERSION_MISMATCH = "Record was modified by another request.";
+    public static final String INVALID_IDEMPOTENCY_KEY = "Idempotency key must be 1 to 255 characters.";
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency key was already used for a different request.";
+    public static final String IDEMPOTENCY_KEY_IN_FLIGHT = "A request with this idempotency key is still in progress.";
+    public static final String IDEMPOTENT_BODY_TOO_LARGE = "Request body is too large to send with an idempotency key.";
+    public static final String CHANGES_PRUNED = "Changes after the cursor were pruned, resynchronize from the start.";
 }
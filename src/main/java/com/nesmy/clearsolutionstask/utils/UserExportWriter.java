@@ -0,0 +1,165 @@
+package com.nesmy.clearsolutionstask.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Writes export rows straight from the JDBC result set; expects the columns of UserExportRepository.COLUMNS.
+public class UserExportWriter implements RowCallbackHandler {
+
+    public static final String CSV_VALUE = "text/csv";
+
+    private static final String[] FIELDS = {"userId", "email", "firstName", "lastName", "birthDate", "address", "phoneNumber"};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JsonFactory jsonFactory;
+    private final HttpServletResponse response;
+    private final boolean csv;
+    private final boolean gzip;
+    private Writer writer;
+    private JsonGenerator generator;
+    private long rows;
+
+    public UserExportWriter(JsonFactory jsonFactory, HttpServletResponse response, boolean csv, boolean gzip) {
+        this.jsonFactory = jsonFactory;
+        this.response = response;
+        this.csv = csv;
+        this.gzip = gzip;
+    }
+
+    // the codings of Accept-Encoding: gzip unless it has q=0; if gzip is not listed, a * with q above 0
+    public static boolean acceptsGzip(List<String> codings) {
+        Double any = null;
+        for (String coding : codings) {
+            String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+            if (parts.length == 0)
+                continue;
+            if (parts[0].equalsIgnoreCase("gzip") || parts[0].equalsIgnoreCase("x-gzip"))
+                return quality(parts) > 0;
+            if (parts[0].equals("*"))
+                any = quality(parts);
+        }
+        return any != null && any > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            int equals = parts[i].indexOf('=');
+            if (equals > 0 && parts[i].substring(0, equals).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parts[i].substring(equals + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        try {
+            open();
+            if (csv)
+                writeCsv(rs);
+            else
+                writeJson(rs);
+            rows++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long finish() throws IOException {
+        open();
+        if (generator != null)
+            generator.close();
+        writer.close();
+        return rows;
+    }
+
+    private void writeCsv(ResultSet rs) throws SQLException, IOException {
+        writer.write(Long.toString(rs.getLong(1)));
+        for (int column = 2; column <= FIELDS.length; column++) {
+            writer.write(',');
+            String value = column == 5 ? toString(rs.getObject(column, LocalDate.class)) : rs.getString(column);
+            if (value != null)
+                writeCsvValue(value);
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote values with separators, quotes or line breaks, doubling the quotes
+    private void writeCsvValue(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeJson(ResultSet rs) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField(FIELDS[0], rs.getLong(1));
+        for (int column = 2; column <= FIELDS.length; column++) {
+            generator.writeFieldName(FIELDS[column - 1]);
+            String value = column == 5 ? toString(rs.getObject(column, LocalDate.class)) : rs.getString(column);
+            if (value == null)
+                generator.writeNull();
+            else
+                generator.writeString(value);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static String toString(LocalDate date) {
+        return date == null ? null : date.toString();
+    }
+
+    // like UserStreamWriter, the response is untouched until there is something to write
+    private void open() throws IOException {
+        if (writer != null)
+            return;
+        response.setContentType((csv ? CSV_VALUE : UserStreamWriter.NDJSON_VALUE) + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + (csv ? "csv" : "ndjson"));
+        // identity and gzip bodies differ by Accept-Encoding alone, so caches must key on it either way
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        OutputStream outputStream = response.getOutputStream();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            outputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (csv) {
+            writer.write(String.join(",", FIELDS));
+            writer.write("\r\n");
+        } else {
+            generator = jsonFactory.createGenerator(writer);
+            generator.setRootValueSeparator(null);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.nesmy.clearsolutionstask.utils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.exceptions.ApiError;
+import com.nesmy.clearsolutionstask.exceptions.ApiException;
+import org.springframework.http.HttpStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+
+// Reads an import one row at a time. A row with an unreadable value fails on its own as an ApiException,
+// anything that breaks the file itself (bad syntax, a dropped connection) as an UncheckedIOException.
+public class UserImportReader implements Iterator<User>, Closeable {
+
+    // the header of GET /users/export, in any order; empty cells read as null
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .build();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema().withHeader().withColumnReordering(true);
+
+    private final MappingIterator<User> rows;
+
+    private UserImportReader(MappingIterator<User> rows) {
+        this.rows = rows;
+    }
+
+    public static UserImportReader csv(InputStream inputStream) throws IOException {
+        return new UserImportReader(CSV_MAPPER.readerFor(User.class).with(CSV_SCHEMA).readValues(inputStream));
+    }
+
+    public static UserImportReader ndjson(ObjectMapper objectMapper, InputStream inputStream) throws IOException {
+        return new UserImportReader(objectMapper.readerFor(User.class).readValues(inputStream));
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return rows.hasNextValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // the iterator skips to the end of a row it failed to map, so reading carries on with the next one
+    @Override
+    public User next() {
+        try {
+            return rows.nextValue();
+        } catch (JsonMappingException e) {
+            List<JsonMappingException.Reference> path = e.getPath();
+            String field = path.isEmpty() || path.get(path.size() - 1).getFieldName() == null
+                    ? "" : path.get(path.size() - 1).getFieldName();
+            throw new ApiException(HttpStatus.BAD_REQUEST, List.of(new ApiError(field, StringCodeConstants.MALFORMED_VALUE)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        rows.close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.nesmy.clearsolutionstask.utils;
+
+import com.nesmy.clearsolutionstask.entity.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UserPatchUtils {
+
+    public static final List<String> FIELDS =
+            List.of("email", "firstName", "lastName", "birthDate", "address", "phoneNumber");
+
+    private UserPatchUtils() {
+
+    }
+
+    public static List<String> updateFieldsForPatch(User source, User target) {
+        List<String> changedFields = new ArrayList<>();
+
+        String updatedEmail = source.getEmail();
+        if (isNotEmpty(updatedEmail)) {
+            target.setEmail(updatedEmail);
+            changedFields.add("email");
+        }
+
+        String updatedFirstName = source.getFirstName();
+        if (isNotEmpty(updatedFirstName)) {
+            target.setFirstName(updatedFirstName);
+            changedFields.add("firstName");
+        }
+
+        String updatedLastName = source.getLastName();
+        if (isNotEmpty(updatedLastName)) {
+            target.setLastName(updatedLastName);
+            changedFields.add("lastName");
+        }
+
+        LocalDate updatedBirthDate = source.getBirthDate();
+        if (isNotEmpty(updatedBirthDate)) {
+            target.setBirthDate(updatedBirthDate);
+            changedFields.add("birthDate");
+        }
+
+        String updatedAddress = source.getAddress();
+        if (isNotEmpty(updatedAddress)) {
+            target.setAddress(updatedAddress);
+            changedFields.add("address");
+        }
+
+        String updatedPhoneNumber = source.getPhoneNumber();
+        if (isNotEmpty(updatedPhoneNumber)) {
+            target.setPhoneNumber(updatedPhoneNumber);
+            changedFields.add("phoneNumber");
+        }
+        return changedFields;
+    }
+
+    public static List<String> replaceFields(User source, User target) {
+        target.setEmail(source.getEmail());
+        target.setFirstName(source.getFirstName());
+        target.setLastName(source.getLastName());
+        target.setBirthDate(source.getBirthDate());
+        target.setAddress(source.getAddress());
+        target.setPhoneNumber(source.getPhoneNumber());
+        return FIELDS;
+    }
+
+    public static Map<String, Object> valuesOf(User user, List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, switch (field) {
+                case "email" -> user.getEmail();
+                case "firstName" -> user.getFirstName();
+                case "lastName" -> user.getLastName();
+                case "birthDate" -> user.getBirthDate();
+                case "address" -> user.getAddress();
+                case "phoneNumber" -> user.getPhoneNumber();
+                default -> throw new IllegalArgumentException(field);
+            });
+        }
+        return values;
+    }
+
+    public static <T> boolean isNotEmpty(T field) {
+        return field != null && !field.equals("");
+    }
+}
@@ -0,0 +1,65 @@
+package com.nesmy.clearsolutionstask.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.nesmy.clearsolutionstask.entity.User;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+public class UserStreamWriter implements Consumer<User> {
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+    private final HttpServletResponse response;
+    private final boolean ndjson;
+    private JsonGenerator generator;
+    private SequenceWriter writer;
+
+    public UserStreamWriter(ObjectMapper objectMapper, HttpServletResponse response, boolean ndjson) {
+        this.objectMapper = objectMapper;
+        this.response = response;
+        this.ndjson = ndjson;
+    }
+
+    @Override
+    public void accept(User user) {
+        try {
+            open();
+            writer.write(user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void finish() throws IOException {
+        open();
+        writer.close();
+        if (generator != null) {
+            generator.writeEndObject();
+            generator.close();
+        }
+    }
+
+    // nothing touches the response until the first row arrives, so a failing query
+    // can still be turned into an ApiErrorDTO by GlobalExceptionHandler
+    private void open() throws IOException {
+        if (writer != null)
+            return;
+        if (ndjson) {
+            response.setContentType(NDJSON_VALUE);
+            writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(response.getOutputStream());
+        } else {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+            generator.writeStartObject();
+            generator.writeFieldName("data");
+            writer = objectMapper.writer().writeValuesAsArray(generator);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.nesmy.clearsolutionstask.web.controller;
+
+import com.nesmy.clearsolutionstask.dto.PageDTO;
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import com.nesmy.clearsolutionstask.exceptions.ApiExceptions;
+import com.nesmy.clearsolutionstask.web.service.UserChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+// Incremental sync: pass the nextCursor of each page as since. Without since the feed starts at the latest change.
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/users/changes")
+public class UserChangeController {
+
+    private final UserChangeFeed userChangeFeed;
+    @Value("${user.page.default-size}")
+    private int defaultPageSize;
+    @Value("${user.page.max-size}")
+    private int maxPageSize;
+    @Value("${user.changes.max-wait-ms}")
+    private long maxWaitMs;
+
+    @Autowired
+    public UserChangeController(UserChangeFeed userChangeFeed) {
+        this.userChangeFeed = userChangeFeed;
+    }
+
+    @GetMapping("")
+    public DeferredResult<PageDTO<UserChangeDTO>> findChanges(@RequestParam(required = false) Long since,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              @RequestParam(required = false) Long waitMs) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize)
+            throw ApiExceptions.INVALID_PAGE_SIZE;
+        if (since == null) {
+            DeferredResult<PageDTO<UserChangeDTO>> result = new DeferredResult<>();
+            result.setResult(userChangeFeed.start());
+            return result;
+        }
+        if (since < 0)
+            throw ApiExceptions.INVALID_CHANGES_CURSOR;
+        long wait = waitMs == null ? maxWaitMs : Math.max(0, Math.min(waitMs, maxWaitMs));
+        return userChangeFeed.poll(since, pageSize, wait);
+    }
+}
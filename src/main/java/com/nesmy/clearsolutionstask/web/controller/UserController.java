@@ -1,52 +1,119 @@
 package com.nesmy.clearsolutionstask.web.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.nesmy.clearsolutionstask.dto.BatchResultDTO;
+import com.nesmy.clearsolutionstask.dto.BirthYearCountDTO;
+import com.nesmy.clearsolutionstask.dto.BulkDeleteResultDTO;
 import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.dto.ImportResultDTO;
+import com.nesmy.clearsolutionstask.dto.PageDTO;
 import com.nesmy.clearsolutionstask.entity.User;
-import com.nesmy.clearsolutionstask.exceptions.ApiError;
-import com.nesmy.clearsolutionstask.exceptions.ApiException;
-import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.exceptions.ApiExceptions;
+import com.nesmy.clearsolutionstask.utils.ETagUtils;
+import com.nesmy.clearsolutionstask.utils.KeysetCursor;
+import com.nesmy.clearsolutionstask.utils.UserExportWriter;
+import com.nesmy.clearsolutionstask.utils.UserImportReader;
+import com.nesmy.clearsolutionstask.utils.UserStreamWriter;
 import com.nesmy.clearsolutionstask.web.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Validated
 @RequestMapping("/users")
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    @Value("${user.page.default-size}")
+    private int defaultPageSize;
+    @Value("${user.page.max-size}")
+    private int maxPageSize;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("")
     public ResponseEntity<DataDTO<User>> create(@RequestBody DataDTO<@Valid User> body) {
         User user = body.getData();
         User newUser = userService.save(user);
-        return ResponseEntity.status(HttpStatus.CREATED)
+        return ETagUtils.withETag(ResponseEntity.status(HttpStatus.CREATED), newUser)
                 .body(new DataDTO<>(newUser));
     }
 
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, UserStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<BatchResultDTO> createBatch(HttpServletRequest request) throws IOException {
+        // a top-level JSON array and newline-delimited objects are both read one record at a time
+        try (MappingIterator<User> users = objectMapper.readerFor(User.class).readValues(request.getInputStream())) {
+            BatchResultDTO result = userService.saveAll(users);
+            return ResponseEntity.status(result.getRejected().isEmpty() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                    .body(result);
+        } catch (RuntimeJsonMappingException e) {
+            throw ApiExceptions.MALFORMED_BATCH;
+        }
+    }
+
+    // rows with bad values are reported and skipped; an import that breaks off is resumed by
+    // sending the same file with the same importId
+    @PostMapping(value = "/import", consumes = {UserExportWriter.CSV_VALUE, UserStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<ImportResultDTO> importUsers(@RequestParam(required = false) String importId,
+                                                       HttpServletRequest request) throws IOException {
+        if (importId != null && (importId.isEmpty() || importId.length() > 64))
+            throw ApiExceptions.INVALID_IMPORT_ID;
+
+        boolean csv = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(UserExportWriter.CSV_VALUE));
+        try (UserImportReader users = csv
+                ? UserImportReader.csv(request.getInputStream())
+                : UserImportReader.ndjson(objectMapper, request.getInputStream())) {
+            ImportResultDTO result = userService.importAll(users, importId);
+            return ResponseEntity.status(result.getRejectedCount() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                    .body(result);
+        } catch (UncheckedIOException e) {
+            throw ApiExceptions.MALFORMED_BATCH;
+        }
+    }
+
+
     @PutMapping("/{id}")
-    public ResponseEntity<DataDTO<User>> update(@PathVariable Long id, @RequestBody DataDTO<@Valid User> body) {
-        User updatedUser = userService.update(id, body.getData());
-        return ResponseEntity.status(HttpStatus.OK).body(new DataDTO<>(updatedUser));
+    public ResponseEntity<DataDTO<User>> update(@PathVariable Long id, @RequestBody DataDTO<@Valid User> body,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        User updatedUser = ifMatch == null
+                ? userService.update(id, body.getData())
+                : userService.update(id, body.getData(), ETagUtils.parseIfMatch(ifMatch));
+        return ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), updatedUser).body(new DataDTO<>(updatedUser));
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<DataDTO<User>> updatePartially(@PathVariable Long id, @RequestBody DataDTO<User> body) {
-        User updatedUser = userService.patch(id, body.getData());
-        return ResponseEntity.status(HttpStatus.OK).body(new DataDTO<>(updatedUser));
+    public ResponseEntity<DataDTO<User>> updatePartially(@PathVariable Long id, @RequestBody DataDTO<User> body,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        User updatedUser = ifMatch == null
+                ? userService.patch(id, body.getData())
+                : userService.patch(id, body.getData(), ETagUtils.parseIfMatch(ifMatch));
+        return ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), updatedUser).body(new DataDTO<>(updatedUser));
     }
 
     @DeleteMapping("/{id}")
@@ -55,17 +122,154 @@ public class UserController {
         if (isDeleted) {
             return new ResponseEntity<>("User was successfully deleted.", HttpStatus.OK);
         } else {
-            throw new ApiException(HttpStatus.NOT_FOUND,
-                    List.of(new ApiError("userId", StringCodeConstants.NOT_FOUND)));
+            throw ApiExceptions.USER_NOT_FOUND;
+        }
+    }
+
+    @DeleteMapping("")
+    public ResponseEntity<BulkDeleteResultDTO> deleteAll(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) LocalDate startBirthDate,
+            @RequestParam(required = false) LocalDate endBirthDate) {
+
+        boolean byRange = startBirthDate != null && endBirthDate != null;
+        if ((ids == null) == !byRange)
+            throw ApiExceptions.INVALID_DELETE_SELECTOR;
+
+        BulkDeleteResultDTO result = byRange
+                ? userService.deleteByBirthDateBetween(startBirthDate, endBirthDate)
+                : userService.deleteAllById(ids);
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<DataDTO<?>> findById(@PathVariable Long id,
+                                               @RequestParam(required = false) List<String> fields) {
+        if (fields != null) {
+            Map<String, Object> values = userService.findFieldsById(id, fields);
+            if (values == null)
+                throw ApiExceptions.USER_NOT_FOUND;
+            return ResponseEntity.status(HttpStatus.OK).body(new DataDTO<>(values));
         }
+        User user = userService.findById(id);
+        if (user == null)
+            throw ApiExceptions.USER_NOT_FOUND;
+        return ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), user).body(new DataDTO<>(user));
+    }
+
+    @GetMapping("/by-email/{email}")
+    public ResponseEntity<DataDTO<User>> findByEmail(@PathVariable String email) {
+        User user = userService.findByEmail(email);
+        if (user == null)
+            throw ApiExceptions.EMAIL_NOT_FOUND;
+        return ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), user).body(new DataDTO<>(user));
     }
 
     @GetMapping("")
-    public ResponseEntity<DataDTO<List<User>>> findByBirthDateBetween(
+    public ResponseEntity<DataDTO<? extends List<?>>> findByBirthDateBetween(
+            @RequestParam LocalDate startBirthDate,
+            @RequestParam LocalDate endBirthDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) List<String> fields) {
+
+        if (fields != null) {
+            KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+            PageDTO<Map<String, Object>> page = userService.findFieldsByBirthDateBetween(startBirthDate, endBirthDate,
+                    fields, after, toPageSize(limit));
+            return ResponseEntity.status(HttpStatus.OK).body(page);
+        }
+
+        if (cursor == null && limit == null) {
+            List<User> users = userService.findByBirthDateBetween(startBirthDate, endBirthDate);
+            return ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), users).body(new DataDTO<>(users));
+        }
+
+        int pageSize = toPageSize(limit);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+
+        List<User> users = userService.findByBirthDateBetween(startBirthDate, endBirthDate, after, pageSize);
+        return ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), users).body(toPage(users, pageSize));
+    }
+
+    @GetMapping("/older-than/{age}")
+    public ResponseEntity<DataDTO<List<User>>> findOlderThan(
+            @PathVariable int age,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        int pageSize = toPageSize(limit);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+
+        List<User> users = userService.findOlderThan(age, after, pageSize);
+        return ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), users).body(toPage(users, pageSize));
+    }
+
+    @GetMapping("/count")
+    public ResponseEntity<DataDTO<Long>> countByBirthDateBetween(
             @RequestParam LocalDate startBirthDate,
             @RequestParam LocalDate endBirthDate) {
 
-        List<User> users = userService.findByBirthDateBetween(startBirthDate, endBirthDate);
-        return ResponseEntity.status(HttpStatus.OK).body(new DataDTO<>(users));
+        long count = userService.countByBirthDateBetween(startBirthDate, endBirthDate);
+        return ResponseEntity.status(HttpStatus.OK).body(new DataDTO<>(count));
+    }
+
+    @GetMapping("/birth-years")
+    public ResponseEntity<DataDTO<List<BirthYearCountDTO>>> countByBirthYear(
+            @RequestParam LocalDate startBirthDate,
+            @RequestParam LocalDate endBirthDate) {
+
+        List<BirthYearCountDTO> buckets = userService.countByBirthYear(startBirthDate, endBirthDate);
+        return ResponseEntity.status(HttpStatus.OK).body(new DataDTO<>(buckets));
+    }
+
+    private int toPageSize(Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize)
+            throw ApiExceptions.INVALID_PAGE_SIZE;
+        return pageSize;
+    }
+
+    private PageDTO<User> toPage(List<User> users, int pageSize) {
+        String nextCursor = users.size() == pageSize
+                ? KeysetCursor.after(users.get(users.size() - 1)).encode()
+                : null;
+        return new PageDTO<>(users, nextCursor);
+    }
+
+    @GetMapping(value = "", params = "stream")
+    public void streamByBirthDateBetween(
+            @RequestParam LocalDate startBirthDate,
+            @RequestParam LocalDate endBirthDate,
+            @RequestParam String stream,
+            HttpServletResponse response) throws IOException {
+
+        boolean ndjson = "ndjson".equals(stream);
+        if (!ndjson && !"json".equals(stream))
+            throw ApiExceptions.UNSUPPORTED_STREAM_FORMAT;
+
+        UserStreamWriter writer = new UserStreamWriter(objectMapper, response, ndjson);
+        userService.streamByBirthDateBetween(startBirthDate, endBirthDate, writer);
+        writer.finish();
+    }
+
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) LocalDate startBirthDate,
+            @RequestParam(required = false) LocalDate endBirthDate,
+            @RequestHeader HttpHeaders headers,
+            HttpServletResponse response) throws IOException {
+
+        boolean csv = "csv".equals(format);
+        if (!csv && !"ndjson".equals(format))
+            throw ApiExceptions.UNSUPPORTED_EXPORT_FORMAT;
+        if ((startBirthDate == null) != (endBirthDate == null))
+            throw ApiExceptions.INCOMPLETE_BIRTH_DATE_RANGE;
+
+        boolean gzip = UserExportWriter.acceptsGzip(headers.getValuesAsList(HttpHeaders.ACCEPT_ENCODING));
+        UserExportWriter writer = new UserExportWriter(objectMapper.getFactory(), response, csv, gzip);
+        userService.exportByBirthDateBetween(startBirthDate, endBirthDate, writer);
+        writer.finish();
     }
 }
@@ -0,0 +1,69 @@
+package com.nesmy.clearsolutionstask.web.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.ApiErrorDTO;
+import com.nesmy.clearsolutionstask.exceptions.ApiError;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Caps in-flight /users requests so a slow database is not stampeded; the rest are shed with 503. Registered by
+// VirtualThreadsConfig only: on platform threads Tomcat's pool is the cap and requests over it queue as before.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final byte[] overloadedBody;
+
+    public ConcurrencyLimitFilter(int maxInFlight, long acquireTimeoutMs, ObjectMapper objectMapper)
+            throws JsonProcessingException {
+        this.permits = new Semaphore(maxInFlight);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        ApiErrorDTO apiErrorDTO = new ApiErrorDTO();
+        apiErrorDTO.setErrors(List.of(new ApiError("", StringCodeConstants.SERVICE_OVERLOADED)));
+        this.overloadedBody = objectMapper.writeValueAsBytes(apiErrorDTO);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !RequestPaths.matches(RequestPaths.USERS_AND_BELOW, request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.getOutputStream().write(overloadedBody);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean tryAcquire() {
+        try {
+            return permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
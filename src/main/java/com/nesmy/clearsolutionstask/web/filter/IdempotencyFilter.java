@@ -0,0 +1,275 @@
+package com.nesmy.clearsolutionstask.web.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nesmy.clearsolutionstask.dto.ApiErrorDTO;
+import com.nesmy.clearsolutionstask.exceptions.ApiError;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Idempotency-Key on POST /users. The first response for a client and key is kept in memory and replayed to
+// retries without reaching the service; duplicates that arrive while it is being produced wait for it.
+// Responses from 5xx or a failed chain are not kept, so the next retry runs again. Runs after rate limiting
+// but ahead of ConcurrencyLimitFilter, so replays and waiting duplicates hold no permit. The body is held in
+// memory to fingerprint it, so bodies past max-body-bytes are refused with 413, by Content-Length when it is
+// given and by reading one byte past the limit when it is not.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final String clientHeader;
+    private final long inFlightWaitMs;
+    private final int maxBodyBytes;
+    private final Cache<String, Entry> entries;
+    private final byte[] invalidKeyBody;
+    private final byte[] keyReusedBody;
+    private final byte[] inFlightBody;
+    private final byte[] bodyTooLargeBody;
+
+    @Autowired
+    public IdempotencyFilter(@Value("${user.idempotency.client-header}") String clientHeader,
+                             @Value("${user.idempotency.max-keys}") long maxKeys,
+                             @Value("${user.idempotency.ttl-seconds}") long ttlSeconds,
+                             @Value("${user.idempotency.in-flight-wait-ms}") long inFlightWaitMs,
+                             @Value("${user.idempotency.max-body-bytes}") int maxBodyBytes,
+                             ObjectMapper objectMapper) throws JsonProcessingException {
+        this.clientHeader = clientHeader;
+        this.inFlightWaitMs = inFlightWaitMs;
+        this.maxBodyBytes = maxBodyBytes;
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxKeys)
+                .build();
+        this.invalidKeyBody = errorBody(objectMapper, StringCodeConstants.INVALID_IDEMPOTENCY_KEY);
+        this.keyReusedBody = errorBody(objectMapper, StringCodeConstants.IDEMPOTENCY_KEY_REUSED);
+        this.inFlightBody = errorBody(objectMapper, StringCodeConstants.IDEMPOTENCY_KEY_IN_FLIGHT);
+        this.bodyTooLargeBody = errorBody(objectMapper, StringCodeConstants.IDEMPOTENT_BODY_TOO_LARGE);
+    }
+
+    private static byte[] errorBody(ObjectMapper objectMapper, String message) throws JsonProcessingException {
+        ApiErrorDTO apiErrorDTO = new ApiErrorDTO();
+        apiErrorDTO.setErrors(List.of(new ApiError(IDEMPOTENCY_KEY, message)));
+        return objectMapper.writeValueAsBytes(apiErrorDTO);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !RequestPaths.matches(RequestPaths.USERS, request)
+                || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY);
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, invalidKeyBody);
+            return;
+        }
+        // keys are scoped to the client, so one client's key never replays another client's user
+        String apiKey = request.getHeader(clientHeader);
+        String storeKey = (apiKey != null ? apiKey : request.getRemoteAddr()) + '\n' + key;
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, bodyTooLargeBody);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, bodyTooLargeBody);
+            return;
+        }
+        byte[] fingerprint = sha256(body);
+
+        while (true) {
+            Entry entry = new Entry(fingerprint);
+            Entry first = entries.asMap().putIfAbsent(storeKey, entry);
+            if (first == null) {
+                execute(new CachedBodyRequest(request, body), response, filterChain, storeKey, entry);
+                return;
+            }
+            if (!Arrays.equals(first.fingerprint, fingerprint)) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, keyReusedBody);
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = first.response.get(inFlightWaitMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                reject(response, HttpStatus.CONFLICT, inFlightBody);
+                return;
+            } catch (ExecutionException e) {
+                // the first attempt failed and gave the key up, so claim it again
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject(response, HttpStatus.CONFLICT, inFlightBody);
+                return;
+            }
+            stored.writeTo(response);
+            return;
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String storeKey, Entry entry) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } catch (Throwable e) {
+            entries.asMap().remove(storeKey, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        StoredResponse stored = new StoredResponse(responseWrapper.getStatus(), responseWrapper.getContentType(),
+                responseWrapper.getHeader(HttpHeaders.ETAG), responseWrapper.getContentAsByteArray());
+        responseWrapper.copyBodyToResponse();
+        if (stored.status >= 500)
+            entries.asMap().remove(storeKey, entry);
+        entry.response.complete(stored);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(body);
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Entry {
+
+        private final byte[] fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+        private Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static class StoredResponse {
+
+        private final int status;
+        private final String contentType;
+        private final String eTag;
+        private final byte[] body;
+
+        private StoredResponse(int status, String contentType, String eTag, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.eTag = eTag;
+            this.body = body;
+        }
+
+        private void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            if (contentType != null)
+                response.setContentType(contentType);
+            if (eTag != null)
+                response.setHeader(HttpHeaders.ETAG, eTag);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the whole body is already here, so the listener is told so at once rather than by the container
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    Objects.requireNonNull(readListener);
+                    try {
+                        if (!isFinished())
+                            readListener.onDataAvailable();
+                        if (isFinished())
+                            readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return inputStream.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.nesmy.clearsolutionstask.web.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.ApiErrorDTO;
+import com.nesmy.clearsolutionstask.exceptions.ApiError;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Per-client token buckets on /users, one set per configured endpoint and a default for the rest.
+// Runs ahead of ConcurrencyLimitFilter, so a limited client never holds one of its permits.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "user.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(RateLimitProperties.class)
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+
+    private final String clientHeader;
+    private final List<Rule> rules = new ArrayList<>();
+    private final Rule defaultRule;
+    private final byte[] limitedBody;
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) throws JsonProcessingException {
+        this.clientHeader = properties.getClientHeader();
+        properties.getEndpoints().values().forEach(limit -> rules.add(new Rule(limit, properties.getMaxClients())));
+        this.defaultRule = new Rule(properties.getDefaultLimit(), properties.getMaxClients());
+        ApiErrorDTO apiErrorDTO = new ApiErrorDTO();
+        apiErrorDTO.setErrors(List.of(new ApiError("", StringCodeConstants.RATE_LIMIT_EXCEEDED)));
+        this.limitedBody = objectMapper.writeValueAsBytes(apiErrorDTO);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !RequestPaths.matches(RequestPaths.USERS_AND_BELOW, request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Rule rule = match(request);
+        long acquired = rule.limiter.tryAcquire(clientOf(request));
+        response.setHeader(LIMIT_HEADER, rule.capacity);
+        response.setHeader(REMAINING_HEADER, Integer.toString(rule.limiter.remaining(acquired)));
+        String seconds = Long.toString((Math.abs(acquired) + 999_999_999) / 1_000_000_000);
+        response.setHeader(RESET_HEADER, seconds);
+        if (acquired < 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, seconds);
+            response.getOutputStream().write(limitedBody);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // the path is only parsed once a rule's method matches
+    private Rule match(HttpServletRequest request) {
+        PathContainer path = null;
+        for (Rule rule : rules) {
+            if (rule.method != null && !rule.method.equals(request.getMethod()))
+                continue;
+            if (path == null)
+                path = RequestPaths.pathWithinApplication(request);
+            if (rule.path.matches(path))
+                return rule;
+        }
+        return defaultRule;
+    }
+
+    // the API key when one is sent, otherwise the caller's address
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(clientHeader);
+        return apiKey != null ? apiKey : request.getRemoteAddr();
+    }
+
+    private static class Rule {
+
+        private final String method;
+        private final PathPattern path;
+        private final String capacity;
+        private final RateLimiter limiter;
+
+        private Rule(RateLimitProperties.Limit limit, long maxClients) {
+            this.method = limit.getMethod();
+            this.path = limit.getPath() == null ? null : PathPatternParser.defaultInstance.parse(limit.getPath());
+            this.capacity = Integer.toString(limit.getCapacity());
+            this.limiter = new RateLimiter(limit.getCapacity(), limit.getRefillPerSecond(), maxClients);
+        }
+    }
+}
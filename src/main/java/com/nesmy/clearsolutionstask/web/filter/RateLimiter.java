@@ -0,0 +1,69 @@
+package com.nesmy.clearsolutionstask.web.filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token bucket per client, kept as a single "theoretical arrival time" (GCRA): a request is allowed while that
+// time stays within a full bucket of now, and every allowed request moves it one refill interval further.
+// That is one CAS per request and no lock.
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long maxClients;
+    private final LongSupplier nanoClock;
+    private final long origin;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong();
+    private final AtomicLong lastSweep;
+
+    public RateLimiter(int capacity, double refillPerSecond, long maxClients) {
+        this(capacity, refillPerSecond, maxClients, System::nanoTime);
+    }
+
+    public RateLimiter(int capacity, double refillPerSecond, long maxClients, LongSupplier nanoClock) {
+        this.intervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.burstNanos = intervalNanos * capacity;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+        this.lastSweep = new AtomicLong(-burstNanos);
+    }
+
+    // > 0: allowed, nanos until the bucket is full again; < 0: rejected, minus the nanos until a token is back
+    public long tryAcquire(String client) {
+        long now = nanoClock.getAsLong() - origin;
+        AtomicLong arrival = buckets.get(client);
+        if (arrival == null)
+            arrival = newBucket(client, now);
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long debt = next - now;
+            if (debt > burstNanos)
+                return burstNanos - debt;
+            if (arrival.compareAndSet(current, next))
+                return debt;
+        }
+    }
+
+    public int remaining(long acquired) {
+        return acquired < 0 ? 0 : (int) ((burstNanos - acquired) / intervalNanos);
+    }
+
+    // A bucket that has been idle for a full refill is as good as a new one, so those are dropped when the map
+    // is full. Clients that still do not fit share one bucket: a flood of new keys can neither grow the map
+    // nor get past the limit.
+    private AtomicLong newBucket(String client, long now) {
+        if (buckets.size() >= maxClients) {
+            long last = lastSweep.get();
+            if (now - last >= burstNanos && lastSweep.compareAndSet(last, now))
+                buckets.values().removeIf(arrival -> arrival.get() <= now);
+            if (buckets.size() >= maxClients)
+                return overflow;
+        }
+        return buckets.computeIfAbsent(client, key -> new AtomicLong());
+    }
+}
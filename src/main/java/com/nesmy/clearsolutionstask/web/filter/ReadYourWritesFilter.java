@@ -0,0 +1,65 @@
+package com.nesmy.clearsolutionstask.web.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nesmy.clearsolutionstask.config.ReplicaRoutingDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Writes and everything a client sends shortly after a successful write are pinned: they are served by the
+// primary, so nobody reads their own change back from a replica that has not applied it yet, and their range reads
+// never join one that started before the write. Active with or without replicas. Recent writers are tracked per
+// instance, so a client whose requests are spread over instances only gets this from the one it wrote through.
+// Clients are told apart by their API key alone: behind a load balancer or NAT one remote address stands for many
+// clients, and one write would pin them all. Without a key only the write itself is pinned, and the reads after it
+// may lag behind it by the replication delay.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final String clientHeader;
+    private final Cache<String, Boolean> recentWriters;
+
+    @Autowired
+    public ReadYourWritesFilter(@Value("${user.replica.client-header}") String clientHeader,
+                                @Value("${user.replica.read-your-writes-ms}") long windowMs,
+                                @Value("${user.replica.max-clients}") long maxClients) {
+        this.clientHeader = clientHeader;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !RequestPaths.matches(RequestPaths.USERS_AND_BELOW, request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String apiKey = request.getHeader(clientHeader);
+        boolean write = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+        if (write || (apiKey != null && recentWriters.getIfPresent(apiKey) != null))
+            ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+        if (write && apiKey != null && response.getStatus() < 400)
+            recentWriters.put(apiKey, Boolean.TRUE);
+    }
+}
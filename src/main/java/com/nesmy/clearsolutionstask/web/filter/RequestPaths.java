@@ -0,0 +1,26 @@
+package com.nesmy.clearsolutionstask.web.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+// Filters match paths the way Spring MVC routes them: below the context path, on decoded segments without
+// ;parameters. Matching the raw request URI instead lets /user%73 reach the /users handlers past the filter.
+final class RequestPaths {
+
+    static final PathPattern USERS = PathPatternParser.defaultInstance.parse("/users");
+    static final PathPattern USERS_AND_BELOW = PathPatternParser.defaultInstance.parse("/users/**");
+
+    private RequestPaths() {
+    }
+
+    static PathContainer pathWithinApplication(HttpServletRequest request) {
+        return RequestPath.parse(request.getRequestURI(), request.getContextPath()).pathWithinApplication();
+    }
+
+    static boolean matches(PathPattern pattern, HttpServletRequest request) {
+        return pattern.matches(pathWithinApplication(request));
+    }
+}
@@ -0,0 +1,42 @@
+package com.nesmy.clearsolutionstask.web.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends changes to a local NDJSON file, a stand-in for a message broker.
+public class FileUserChangeSink implements UserChangeSink {
+
+    private final Path file;
+    private final ObjectWriter writer;
+
+    public FileUserChangeSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.writer = objectMapper.writerFor(UserChangeDTO.class);
+    }
+
+    @Override
+    public void publish(List<UserChangeDTO> changes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(changes.size() * 128);
+        for (UserChangeDTO change : changes) {
+            buffer.write(writer.writeValueAsBytes(change));
+            buffer.write('\n');
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining())
+                channel.write(bytes);
+            // on disk before the relay offset moves past the batch
+            channel.force(false);
+        }
+    }
+}
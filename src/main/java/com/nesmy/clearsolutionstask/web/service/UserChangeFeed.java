@@ -0,0 +1,98 @@
+package com.nesmy.clearsolutionstask.web.service;
+
+import com.nesmy.clearsolutionstask.dto.PageDTO;
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import com.nesmy.clearsolutionstask.exceptions.ApiExceptions;
+import com.nesmy.clearsolutionstask.repository.UserChangeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Long-polling reads of the outbox. A waiting poll holds no thread and no connection; one query per tick
+// finds out whether anything newer than the oldest waiting cursor has been committed.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserChangeFeed {
+
+    private final UserChangeRepository userChangeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Set<Poll> polls = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public UserChangeFeed(UserChangeRepository userChangeRepository, PlatformTransactionManager transactionManager) {
+        this.userChangeRepository = userChangeRepository;
+        // read-only, so the reads go to a replica when there are any
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // a consumer that has just copied the users starts from here rather than from the first change
+    public PageDTO<UserChangeDTO> start() {
+        long latest = readOnlyTransaction.execute(status -> userChangeRepository.findLatestId());
+        return new PageDTO<>(List.of(), String.valueOf(latest));
+    }
+
+    public PageDTO<UserChangeDTO> read(long since, int limit) {
+        return readOnlyTransaction.execute(status -> {
+            if (since < userChangeRepository.findOffset(UserChangeRepository.PRUNED))
+                throw ApiExceptions.CHANGES_PRUNED;
+            List<UserChangeDTO> changes = userChangeRepository.findAfter(since, limit);
+            String nextCursor = String.valueOf(changes.isEmpty() ? since : changes.get(changes.size() - 1).getChangeId());
+            return new PageDTO<>(changes, nextCursor);
+        });
+    }
+
+    // answers at once when there are changes, otherwise with the first ones to commit or an empty page on timeout
+    public DeferredResult<PageDTO<UserChangeDTO>> poll(long since, int limit, long waitMs) {
+        PageDTO<UserChangeDTO> page = read(since, limit);
+        DeferredResult<PageDTO<UserChangeDTO>> result = new DeferredResult<>(waitMs, page);
+        if (!page.getData().isEmpty() || waitMs == 0) {
+            result.setResult(page);
+            return result;
+        }
+        Poll poll = new Poll(since, limit, result);
+        polls.add(poll);
+        result.onCompletion(() -> polls.remove(poll));
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${user.changes.poll-interval-ms}")
+    public void wakePolls() {
+        if (polls.isEmpty())
+            return;
+        long latest = readOnlyTransaction.execute(status -> userChangeRepository.findLatestId());
+        for (Poll poll : polls) {
+            if (poll.since >= latest)
+                continue;
+            try {
+                PageDTO<UserChangeDTO> page = read(poll.since, poll.limit);
+                if (!page.getData().isEmpty() && poll.result.setResult(page))
+                    polls.remove(poll);
+            } catch (RuntimeException e) {
+                poll.result.setErrorResult(e);
+                polls.remove(poll);
+            }
+        }
+    }
+
+    private static class Poll {
+
+        private final long since;
+        private final int limit;
+        private final DeferredResult<PageDTO<UserChangeDTO>> result;
+
+        private Poll(long since, int limit, DeferredResult<PageDTO<UserChangeDTO>> result) {
+            this.since = since;
+            this.limit = limit;
+            this.result = result;
+        }
+    }
+}
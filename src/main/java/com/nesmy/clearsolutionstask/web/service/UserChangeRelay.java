@@ -0,0 +1,87 @@
+package com.nesmy.clearsolutionstask.web.service;
+
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import com.nesmy.clearsolutionstask.repository.UserChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Publishes the outbox to the sink in batches. The relay offset is locked for the whole batch, so with
+// several instances one publishes while the others wait, and a failed publish leaves the offset where it was.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserChangeRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeRelay.class);
+
+    private final UserChangeRepository userChangeRepository;
+    private final UserChangeSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+
+    @Autowired
+    public UserChangeRelay(UserChangeRepository userChangeRepository, UserChangeSink sink,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${user.changes.relay.batch-size}") int batchSize,
+                           @Value("${user.changes.retention-hours}") long retentionHours) {
+        this.userChangeRepository = userChangeRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${user.changes.relay.interval-ms}")
+    public void relay() {
+        try {
+            int published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Relaying user changes failed, retrying on the next run", e);
+        }
+    }
+
+    private int publishBatch() {
+        long offset = userChangeRepository.lockOffset(UserChangeRepository.RELAY);
+        List<UserChangeDTO> changes = userChangeRepository.findAfter(offset, batchSize);
+        if (changes.isEmpty())
+            return 0;
+        try {
+            sink.publish(changes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        userChangeRepository.saveOffset(UserChangeRepository.RELAY, changes.get(changes.size() - 1).getChangeId());
+        return changes.size();
+    }
+
+    // only changes the relay has published are pruned, however old
+    @Scheduled(fixedDelayString = "${user.changes.prune-interval-ms}")
+    public void prune() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long prunedThrough = userChangeRepository.prune(
+                        userChangeRepository.lockOffset(UserChangeRepository.RELAY), Instant.now().minus(retention));
+                if (prunedThrough > 0)
+                    userChangeRepository.saveOffset(UserChangeRepository.PRUNED, prunedThrough);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Pruning user changes failed, retrying on the next run", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.nesmy.clearsolutionstask.web.service;
+
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+// Where the relay delivers user changes. A batch that throws is delivered again, so sinks see each change
+// at least once and in change id order.
+public interface UserChangeSink {
+
+    void publish(List<UserChangeDTO> changes) throws IOException;
+}
@@ -1,21 +1,64 @@
 package com.nesmy.clearsolutionstask.web.service;
 
+import com.nesmy.clearsolutionstask.dto.BatchResultDTO;
+import com.nesmy.clearsolutionstask.dto.BirthYearCountDTO;
+import com.nesmy.clearsolutionstask.dto.BulkDeleteResultDTO;
+import com.nesmy.clearsolutionstask.dto.ImportResultDTO;
+import com.nesmy.clearsolutionstask.dto.PageDTO;
 import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.utils.KeysetCursor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserService {
 
     User findById(Long id);
 
+    User findByEmail(String email);
+
+    Map<String, Object> findFieldsById(Long id, List<String> fields);
+
     User save(User user);
 
+    BatchResultDTO saveAll(Iterator<User> users);
+
+    ImportResultDTO importAll(Iterator<User> users, String importId);
+
     boolean deleteById(Long id);
 
+    BulkDeleteResultDTO deleteAllById(Collection<Long> ids);
+
+    BulkDeleteResultDTO deleteByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate);
+
     List<User> findByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate);
 
+    List<User> findByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate, KeysetCursor after, int limit);
+
+    PageDTO<Map<String, Object>> findFieldsByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate,
+                                                              List<String> fields, KeysetCursor after, int limit);
+
+    List<User> findOlderThan(int age, KeysetCursor after, int limit);
+
+    long countByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate);
+
+    List<BirthYearCountDTO> countByBirthYear(LocalDate startBirthDate, LocalDate endBirthDate);
+
+    void streamByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate, Consumer<User> consumer);
+
+    void exportByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate, RowCallbackHandler handler);
+
     User update(Long id, User user);
 
+    User update(Long id, User user, Set<Long> expectedVersions);
+
     User patch(Long id, User user);
+
+    User patch(Long id, User user, Set<Long> expectedVersions);
 }
@@ -1,98 +1,612 @@
 package com.nesmy.clearsolutionstask.web.service;
 
+import com.nesmy.clearsolutionstask.config.ReplicaRoutingDataSource;
+import com.nesmy.clearsolutionstask.dto.BatchRejectionDTO;
+import com.nesmy.clearsolutionstask.dto.BatchResultDTO;
+import com.nesmy.clearsolutionstask.dto.BirthYearCountDTO;
+import com.nesmy.clearsolutionstask.dto.BulkDeleteResultDTO;
+import com.nesmy.clearsolutionstask.dto.ImportResultDTO;
+import com.nesmy.clearsolutionstask.dto.PageDTO;
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import com.nesmy.clearsolutionstask.repository.BirthDateIndex;
+import com.nesmy.clearsolutionstask.repository.UserChangeRepository;
+import com.nesmy.clearsolutionstask.repository.EmailFilter;
+import com.nesmy.clearsolutionstask.repository.UserExportRepository;
+import com.nesmy.clearsolutionstask.repository.UserImportRepository;
 import com.nesmy.clearsolutionstask.repository.UserRepository;
 import com.nesmy.clearsolutionstask.entity.User;
 import com.nesmy.clearsolutionstask.exceptions.ApiError;
 import com.nesmy.clearsolutionstask.exceptions.ApiException;
+import com.nesmy.clearsolutionstask.exceptions.ApiExceptions;
+import com.nesmy.clearsolutionstask.utils.KeysetCursor;
+import com.nesmy.clearsolutionstask.utils.SingleFlight;
 import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.utils.UserPatchUtils;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
-import jakarta.validation.Validation;
 import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "user.service", histogram = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserServiceImpl implements UserService {
 
+    public static final String USER_CACHE = "users";
+    private static final Set<String> USER_FIELDS =
+            Set.of("userId", "email", "firstName", "lastName", "birthDate", "address", "phoneNumber");
+    private static final Set<String> INDEXED_FIELDS = Set.of("userId", "birthDate");
+    private static final LongConsumer NO_CHECKPOINT = end -> { };
+    // LocalDate years run out long before int ages do, and nobody alive is older than this
+    private static final int MAX_AGE = 150;
+
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final Cache userCache;
+    private final EmailFilter emailFilter;
+    private final UserExportRepository userExportRepository;
+    private final UserImportRepository userImportRepository;
+    private final UserChangeRepository userChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SingleFlight<List<Object>, List<User>> rangeReads;
     @Value("${user.min-age}")
     private int minAge;
+    @Value("${user.batch.size}")
+    private int batchSize;
+    @Value("${user.update.max-attempts}")
+    private int maxUpdateAttempts;
+    @Value("${user.import.max-reported-rejections}")
+    private int maxReportedRejections;
+    private BirthDateIndex birthDateIndex;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, EntityManager entityManager, Validator validator,
+                           CacheManager cacheManager, EmailFilter emailFilter,
+                           UserExportRepository userExportRepository, UserImportRepository userImportRepository,
+                           UserChangeRepository userChangeRepository, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${user.single-flight.range-cache-ms}") long rangeCacheMs,
+                           @Value("${user.single-flight.range-cache-size}") long rangeCacheSize) {
         this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.userCache = cacheManager.getCache(USER_CACHE);
+        this.emailFilter = emailFilter;
+        this.userExportRepository = userExportRepository;
+        this.userImportRepository = userImportRepository;
+        this.userChangeRepository = userChangeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rangeReads = new SingleFlight<>("findByBirthDateBetween", Duration.ofMillis(rangeCacheMs),
+                rangeCacheSize, meterRegistry);
+    }
+
+    // only present when user.birth-date-index.enabled is set
+    @Autowired(required = false)
+    public void setBirthDateIndex(BirthDateIndex birthDateIndex) {
+        this.birthDateIndex = birthDateIndex;
     }
 
     @Override
     public User findById(Long id) {
-        Optional<User> user = userRepository.findById(id);
-        return user.orElse(null);
+        User user = userCache.get(id, () -> userRepository.findById(id).orElse(null));
+        // callers such as patch modify the returned user, so the cached instance is never handed out
+        return user == null ? null : new User(user);
+    }
+
+    // always queried: the filter misses emails written by other instances or around the service, which is only
+    // safe where the unique index catches them, on the way in
+    @Override
+    public User findByEmail(String email) {
+        return userRepository.findByEmail(email).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> findFieldsById(Long id, List<String> fields) {
+        validateFields(fields);
+        List<Tuple> rows = userRepository.findFieldsById(id, new LinkedHashSet<>(fields));
+        return rows.isEmpty() ? null : toMap(rows.get(0), fields);
+    }
+
+    private User saveAndCache(User user) {
+        if (isEmailTaken(user.getEmail()))
+            throw ApiExceptions.DUPLICATE_EMAIL;
+        User saved;
+        try {
+            saved = insertWithChanges(List.of(user)).get(0);
+        } catch (DataIntegrityViolationException e) {
+            throw isDuplicateEmail(e) ? ApiExceptions.DUPLICATE_EMAIL : e;
+        }
+        userCache.put(saved.getUserId(), new User(saved));
+        addToIndexes(saved);
+        return saved;
+    }
+
+    // Every write records its change events in its own transaction. The users are flushed first, so the outbox
+    // insert is the last statement before the commit and the outbox lock is only held for that insert and the commit.
+    private List<User> insertWithChanges(List<User> users) {
+        return insertWithChanges(users, () -> { });
+    }
+
+    // alsoInTransaction runs before the outbox insert, for writes that must land together with the users
+    private List<User> insertWithChanges(List<User> users, Runnable alsoInTransaction) {
+        return transactionTemplate.execute(status -> {
+            List<User> saved = userRepository.saveAllAndFlush(users);
+            alsoInTransaction.run();
+            userChangeRepository.append(saved.stream().map(UserChangeDTO::created).toList());
+            return saved;
+        });
+    }
+
+    private void addToIndexes(User user) {
+        emailFilter.put(user.getEmail());
+        if (birthDateIndex != null)
+            birthDateIndex.add(user.getUserId(), user.getBirthDate());
+    }
+
+    // the filter answers most creates on its own; only a possible hit costs an existence query
+    private boolean isEmailTaken(String email) {
+        return emailFilter.mightContain(email) && userRepository.existsByEmail(email);
+    }
+
+    // the unique index stays the source of truth for requests that race past the check
+    static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase().contains("ux_users_email");
     }
 
     @Override
     public User save(User user) {
         ApiException apiException = validateUserIsNull(user);
         if (apiException == null) {
-            // requirement 2.1 ...users who are more than [18] years old. I would use more than or equal to 18
-            if (calculateAge(user.getBirthDate()) > minAge)
-                return userRepository.save(user);
+            if (isOldEnough(user)) {
+                user.setUserId(null);
+                user.setVersion(null);
+                return saveAndCache(user);
+            }
             else {
-                apiException = new ApiException(HttpStatus.UNPROCESSABLE_ENTITY,
-                        List.of(new ApiError("birthDate", StringCodeConstants.BIRTHDATE_IS_LESS_THAN_18)));
+                apiException = ApiExceptions.BIRTHDATE_IS_LESS_THAN_18;
             }
         }
         throw apiException;
     }
 
-    private int calculateAge(LocalDate birthDate) {
+    @Override
+    public BatchResultDTO saveAll(Iterator<User> users) {
+        BatchResultDTO result = new BatchResultDTO();
+        List<User> chunk = new ArrayList<>(batchSize);
+        List<Long> chunkIndexes = new ArrayList<>(batchSize);
+        Set<String> chunkEmails = new HashSet<>();
+        long index = 0;
+        while (users.hasNext()) {
+            User user = users.next();
+            List<ApiError> errors = validateForBatch(user);
+            if (errors.isEmpty() && (!chunkEmails.add(user.getEmail()) || isEmailTaken(user.getEmail())))
+                errors = ApiExceptions.DUPLICATE_EMAIL.getApiErrors();
+            if (errors.isEmpty()) {
+                user.setUserId(null);
+                user.setVersion(null);
+                chunk.add(user);
+                chunkIndexes.add(index);
+                if (chunk.size() == batchSize) {
+                    saveChunk(chunk, chunkIndexes, result, NO_CHECKPOINT, index + 1);
+                    chunkEmails.clear();
+                }
+            } else {
+                result.getRejected().add(new BatchRejectionDTO(index, errors));
+            }
+            index++;
+        }
+        saveChunk(chunk, chunkIndexes, result, NO_CHECKPOINT, index);
+        return result;
+    }
+
+    // Parsing and writing stay on the calling thread, in order; validating a chunk runs in parallel
+    // while the chunk before it is written, so at most two chunks are held at a time.
+    @Override
+    public ImportResultDTO importAll(Iterator<User> users, String importId) {
+        ImportResultDTO result = new ImportResultDTO();
+        long index = 0;
+        long checkpoint = importId == null ? 0 : userImportRepository.findCheckpoint(importId);
+        // rows before the checkpoint were written by an earlier run of the same import
+        for (; index < checkpoint && users.hasNext(); index++) {
+            try {
+                users.next();
+            } catch (ApiException e) {
+                // already reported by that run
+            }
+        }
+        result.setSkipped(index);
+
+        CompletableFuture<List<ImportRow>> pending = null;
+        while (users.hasNext()) {
+            List<ImportRow> rows = new ArrayList<>(batchSize);
+            for (; rows.size() < batchSize && users.hasNext(); index++) {
+                try {
+                    rows.add(new ImportRow(index, users.next(), null));
+                } catch (ApiException e) {
+                    rows.add(new ImportRow(index, null, e.getApiErrors()));
+                }
+            }
+            CompletableFuture<List<ImportRow>> validated = CompletableFuture.supplyAsync(() -> validateForImport(rows));
+            if (pending != null)
+                writeImportChunk(pending.join(), importId, result);
+            pending = validated;
+        }
+        if (pending != null)
+            writeImportChunk(pending.join(), importId, result);
+        result.setCheckpoint(index);
+        return result;
+    }
+
+    private List<ImportRow> validateForImport(List<ImportRow> rows) {
+        return rows.parallelStream()
+                .map(row -> row.errors == null ? new ImportRow(row.index, row.user, validateForBatch(row.user)) : row)
+                .toList();
+    }
+
+    private void writeImportChunk(List<ImportRow> rows, String importId, ImportResultDTO result) {
+        List<User> chunk = new ArrayList<>(rows.size());
+        List<Long> chunkIndexes = new ArrayList<>(rows.size());
+        Set<String> chunkEmails = new HashSet<>();
+        List<BatchRejectionDTO> rejected = new ArrayList<>();
+        for (ImportRow row : rows) {
+            List<ApiError> errors = row.errors;
+            if (errors.isEmpty() && (!chunkEmails.add(row.user.getEmail()) || isEmailTaken(row.user.getEmail())))
+                errors = ApiExceptions.DUPLICATE_EMAIL.getApiErrors();
+            if (errors.isEmpty()) {
+                row.user.setUserId(null);
+                row.user.setVersion(null);
+                chunk.add(row.user);
+                chunkIndexes.add(row.index);
+            } else {
+                rejected.add(new BatchRejectionDTO(row.index, errors));
+            }
+        }
+        BatchResultDTO chunkResult = new BatchResultDTO();
+        chunkResult.setRejected(rejected);
+        LongConsumer checkpoint = importId == null ? NO_CHECKPOINT
+                : next -> userImportRepository.saveCheckpoint(importId, next);
+        saveChunk(chunk, chunkIndexes, chunkResult, checkpoint, rows.get(rows.size() - 1).index + 1);
+
+        result.setCreated(result.getCreated() + chunkResult.getCreated());
+        result.setRejectedCount(result.getRejectedCount() + rejected.size());
+        // the report is capped so that a file full of bad rows cannot grow the response without bound
+        rejected.sort(Comparator.comparingLong(BatchRejectionDTO::getIndex));
+        int room = maxReportedRejections - result.getRejected().size();
+        result.getRejected().addAll(rejected.subList(0, Math.min(Math.max(room, 0), rejected.size())));
+    }
+
+    private static class ImportRow {
+
+        private final long index;
+        private final User user;
+        private final List<ApiError> errors;
+
+        private ImportRow(long index, User user, List<ApiError> errors) {
+            this.index = index;
+            this.user = user;
+            this.errors = errors;
+        }
+    }
+
+    // Every chunk is its own transaction, so the persistence context never holds more than one batch. The
+    // checkpoint (the index of the first row after this chunk, for imports) is written in the transaction that
+    // inserts the rows before it, so a rerun never reads back committed rows as duplicates.
+    private void saveChunk(List<User> chunk, List<Long> chunkIndexes, BatchResultDTO result,
+                           LongConsumer checkpoint, long end) {
+        if (chunk.isEmpty()) {
+            checkpoint.accept(end);
+            return;
+        }
+        try {
+            insertWithChanges(chunk, () -> checkpoint.accept(end));
+            chunk.forEach(this::afterBatchInsert);
+            result.setCreated(result.getCreated() + chunk.size());
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateEmail(e))
+                throw e;
+            // a concurrent request took one of the emails; the chunk was rolled back, so find it one by one
+            for (int i = 0; i < chunk.size(); i++) {
+                User user = chunk.get(i);
+                user.setUserId(null);
+                user.setVersion(null);
+                long next = chunkIndexes.get(i) + 1;
+                try {
+                    insertWithChanges(List.of(user), () -> checkpoint.accept(next));
+                    afterBatchInsert(user);
+                    result.setCreated(result.getCreated() + 1);
+                } catch (DataIntegrityViolationException userException) {
+                    if (!isDuplicateEmail(userException))
+                        throw userException;
+                    result.getRejected().add(new BatchRejectionDTO(chunkIndexes.get(i), ApiExceptions.DUPLICATE_EMAIL.getApiErrors()));
+                }
+            }
+            // rows after the last insert were rejected, and a rerun rejects them again
+            checkpoint.accept(end);
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private void afterBatchInsert(User user) {
+        userCache.evict(user.getUserId());
+        addToIndexes(user);
+    }
+
+    private List<ApiError> validateForBatch(User user) {
+        if (validateUserIsNull(user) != null)
+            return List.of(new ApiError("", StringCodeConstants.NO_DATA_SUBMITTED));
+        List<ApiError> errors = new ArrayList<>();
+        for (ConstraintViolation<User> violation : validator.validate(user)) {
+            errors.add(new ApiError(violation.getPropertyPath().toString(), violation.getMessageTemplate()));
+        }
+        if (errors.isEmpty() && !isOldEnough(user))
+            errors.add(new ApiError("birthDate", StringCodeConstants.BIRTHDATE_IS_LESS_THAN_18));
+        return errors;
+    }
+
+    private boolean isOldEnough(User user) {
+        // requirement 2.1 ...users who are more than [18] years old. I would use more than or equal to 18
+        return calculateAge(user.getBirthDate()) > minAge;
+    }
+
+    public static int calculateAge(LocalDate birthDate) {
         Period period = Period.between(birthDate, LocalDate.now());
         return period.getYears();
     }
 
     @Override
     public boolean deleteById(Long id) {
-        Optional<User> user = userRepository.findById(id);
-        if (user.isPresent()) {
-            userRepository.delete(user.get());
+        boolean deleted = transactionTemplate.execute(status -> {
+            if (userRepository.deleteByUserId(id) == 0)
+                return false;
+            userChangeRepository.append(List.of(UserChangeDTO.deleted(id)));
             return true;
-        } else {
-            return false;
+        });
+        userCache.evict(id);
+        if (deleted && birthDateIndex != null)
+            birthDateIndex.remove(id);
+        return deleted;
+    }
+
+    @Override
+    public BulkDeleteResultDTO deleteAllById(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        BulkDeleteResultDTO result = new BulkDeleteResultDTO();
+        result.setRequested((long) distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += batchSize) {
+            deleteChunk(distinctIds.subList(from, Math.min(from + batchSize, distinctIds.size())), result);
+        }
+        return result;
+    }
+
+    // deleted rows drop out of the range, so the first page is always the next chunk
+    @Override
+    public BulkDeleteResultDTO deleteByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate) {
+        validateBirthDateRange(startBirthDate, endBirthDate);
+        BulkDeleteResultDTO result = new BulkDeleteResultDTO();
+        List<Long> chunk;
+        while (!(chunk = userRepository.findIdsByBirthDateBetween(startBirthDate, endBirthDate,
+                PageRequest.ofSize(batchSize))).isEmpty()) {
+            deleteChunk(chunk, result);
         }
+        return result;
+    }
+
+    private void deleteChunk(List<Long> chunk, BulkDeleteResultDTO result) {
+        // the chunk may name ids that are already gone, and only the rows actually deleted get a change
+        int deleted = transactionTemplate.execute(status -> {
+            List<Long> existing = userRepository.lockExistingIds(chunk);
+            if (existing.isEmpty())
+                return 0;
+            int count = userRepository.deleteByUserIdIn(existing);
+            userChangeRepository.append(existing.stream().map(UserChangeDTO::deleted).toList());
+            return count;
+        });
+        result.setDeleted(result.getDeleted() + deleted);
+        result.setChunks(result.getChunks() + 1);
+        chunk.forEach(userCache::evict);
+        if (birthDateIndex != null)
+            birthDateIndex.removeAll(chunk);
     }
 
     @Override
     public List<User> findByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate) {
-        if (startBirthDate.isBefore(endBirthDate)) {
-            return userRepository.findByBirthDateBetween(startBirthDate, endBirthDate);
-        } else
-            throw new ApiException(HttpStatus.UNPROCESSABLE_ENTITY,
-                    List.of(new ApiError("", StringCodeConstants.START_DATE_IS_NOT_BEFORE_END_DATE)));
+        validateBirthDateRange(startBirthDate, endBirthDate);
+        return coalesce(Arrays.asList(startBirthDate, endBirthDate),
+                () -> userRepository.findByBirthDateBetween(startBirthDate, endBirthDate));
+    }
+
+    @Override
+    public List<User> findByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate,
+                                             KeysetCursor after, int limit) {
+        validateBirthDateRange(startBirthDate, endBirthDate);
+        PageRequest page = PageRequest.ofSize(limit);
+        if (after == null)
+            return coalesce(Arrays.asList(startBirthDate, endBirthDate, limit),
+                    () -> userRepository.findFirstPageByBirthDateBetween(startBirthDate, endBirthDate, page));
+        return coalesce(Arrays.asList(startBirthDate, endBirthDate, limit, after.getBirthDate(), after.getUserId()),
+                () -> userRepository.findNextPageByBirthDateBetween(startBirthDate, endBirthDate,
+                        after.getBirthDate(), after.getUserId(), page));
+    }
+
+    // Identical range reads in flight share one query. The transaction is only opened by the caller that runs it,
+    // so the others wait without holding a connection; callers share the returned list and must not modify it.
+    private List<User> coalesce(List<Object> key, Supplier<List<User>> query) {
+        Supplier<List<User>> transactional = () -> readOnlyTransaction.execute(status -> query.get());
+        // a client that has just written, pinned by ReadYourWritesFilter, must not join a read from before its write
+        if (ReplicaRoutingDataSource.isPinned())
+            return transactional.get();
+        return rangeReads.execute(key, transactional);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageDTO<Map<String, Object>> findFieldsByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate,
+                                                                     List<String> fields, KeysetCursor after, int limit) {
+        validateBirthDateRange(startBirthDate, endBirthDate);
+        validateFields(fields);
+        if (birthDateIndex != null && INDEXED_FIELDS.containsAll(fields))
+            return findIndexedFields(startBirthDate, endBirthDate, fields, after, limit);
+        // the keyset columns are always read to build the next cursor, but only the requested fields are returned
+        Set<String> selected = new LinkedHashSet<>(fields);
+        selected.add("birthDate");
+        selected.add("userId");
+
+        List<Tuple> rows = userRepository.findFieldsByBirthDateBetween(startBirthDate, endBirthDate, selected, after, limit);
+        List<Map<String, Object>> data = new ArrayList<>(rows.size());
+        rows.forEach(row -> data.add(toMap(row, fields)));
+        String nextCursor = null;
+        if (rows.size() == limit) {
+            Tuple last = rows.get(rows.size() - 1);
+            nextCursor = new KeysetCursor(last.get("birthDate", LocalDate.class), last.get("userId", Long.class)).encode();
+        }
+        return new PageDTO<>(data, nextCursor);
+    }
+
+    // ids and birth dates alone never need a database round trip when the index is on
+    private PageDTO<Map<String, Object>> findIndexedFields(LocalDate startBirthDate, LocalDate endBirthDate,
+                                                           List<String> fields, KeysetCursor after, int limit) {
+        long[] userIds = new long[limit];
+        int[] epochDays = new int[limit];
+        int count = birthDateIndex.page(startBirthDate, endBirthDate,
+                after == null ? null : after.getBirthDate(), after == null ? null : after.getUserId(),
+                userIds, epochDays);
+        List<Map<String, Object>> data = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (String field : fields)
+                values.put(field, "userId".equals(field) ? (Object) userIds[i] : LocalDate.ofEpochDay(epochDays[i]));
+            data.add(values);
+        }
+        String nextCursor = count == limit
+                ? new KeysetCursor(LocalDate.ofEpochDay(epochDays[count - 1]), userIds[count - 1]).encode()
+                : null;
+        return new PageDTO<>(data, nextCursor);
+    }
+
+    private void validateFields(List<String> fields) {
+        if (fields.isEmpty() || !USER_FIELDS.containsAll(fields))
+            throw ApiExceptions.UNKNOWN_FIELD;
+    }
+
+    private Map<String, Object> toMap(Tuple row, List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        fields.forEach(field -> values.put(field, row.get(field)));
+        return values;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findOlderThan(int age, KeysetCursor after, int limit) {
+        if (age < 0 || age > MAX_AGE)
+            throw ApiExceptions.INVALID_AGE;
+        // older than N years means born on or before the day N + 1 years ago, an index range on birth_date
+        LocalDate cutoff = LocalDate.now().minusYears(age + 1L);
+        PageRequest page = PageRequest.ofSize(limit);
+        if (after == null)
+            return userRepository.findFirstPageByBirthDateNotAfter(cutoff, page);
+        return userRepository.findNextPageByBirthDateNotAfter(cutoff, after.getBirthDate(), after.getUserId(), page);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate) {
+        validateBirthDateRange(startBirthDate, endBirthDate);
+        if (birthDateIndex != null)
+            return birthDateIndex.count(startBirthDate, endBirthDate);
+        return userRepository.countByBirthDateBetween(startBirthDate, endBirthDate);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<BirthYearCountDTO> countByBirthYear(LocalDate startBirthDate, LocalDate endBirthDate) {
+        validateBirthDateRange(startBirthDate, endBirthDate);
+        return userRepository.countByBirthYear(startBirthDate, endBirthDate);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate, Consumer<User> consumer) {
+        validateBirthDateRange(startBirthDate, endBirthDate);
+        try (Stream<User> users = userRepository.streamByBirthDateBetween(startBirthDate, endBirthDate)) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                // keep the persistence context from growing with the range
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    // a null range exports the whole table
+    @Override
+    @Transactional(readOnly = true)
+    public void exportByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate, RowCallbackHandler handler) {
+        if (startBirthDate != null)
+            validateBirthDateRange(startBirthDate, endBirthDate);
+        userExportRepository.export(startBirthDate, endBirthDate, handler);
+    }
+
+    private void validateBirthDateRange(LocalDate startBirthDate, LocalDate endBirthDate) {
+        if (!startBirthDate.isBefore(endBirthDate))
+            throw ApiExceptions.START_DATE_IS_NOT_BEFORE_END_DATE;
+    }
+
+    @Override
     public User update(Long id, User user) {
+        return update(id, user, null);
+    }
+
+    @Override
+    public User update(Long id, User user, Set<Long> expectedVersions) {
         ApiException apiException = validateUserIsNull(user);
         if (apiException == null) {
             if (Objects.equals(id, user.getUserId())) {
-                if (findById(id) != null) {
-                    return userRepository.save(user);
-                } else
-                    apiException = new ApiException(HttpStatus.NOT_FOUND,
-                        List.of(new ApiError("userId", StringCodeConstants.NOT_FOUND)));
-
+                return updateFields(id, expectedVersions, current -> UserPatchUtils.replaceFields(user, current));
             } else {
-                apiException = new ApiException(HttpStatus.BAD_REQUEST,
-                        List.of(new ApiError("userId", StringCodeConstants.KEY_FIELD_PARAMETERS_MISMATCH)));
+                apiException = ApiExceptions.KEY_FIELD_PARAMETERS_MISMATCH;
             }
         }
         throw apiException;
@@ -100,67 +614,90 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User patch(Long id, User user) {
+        return patch(id, user, null);
+    }
+
+    @Override
+    public User patch(Long id, User user, Set<Long> expectedVersions) {
         ApiException apiException = validateUserIsNull(user);
         if (apiException == null) {
 
             if (Objects.equals(id, user.getUserId())) {
-                User userToUpdate = findById(id);
-                if (userToUpdate != null) {
-                    updateFieldsForPatch(user, userToUpdate);
-                    validateUserForPatch(userToUpdate);
-                    return userRepository.save(userToUpdate);
-                } else
-                    apiException = new ApiException(HttpStatus.NOT_FOUND,
-                            List.of(new ApiError("userId", StringCodeConstants.NOT_FOUND)));
-
+                return updateFields(id, expectedVersions, current -> UserPatchUtils.updateFieldsForPatch(user, current));
             } else {
-                apiException = new ApiException(HttpStatus.BAD_REQUEST,
-                        List.of(new ApiError("userId", StringCodeConstants.KEY_FIELD_PARAMETERS_MISMATCH)));
+                apiException = ApiExceptions.KEY_FIELD_PARAMETERS_MISMATCH;
             }
 
         }
         throw apiException;
     }
 
-    private void updateFieldsForPatch(User source, User target) {
-        String updatedEmail = source.getEmail();
-        if (isNotEmpty(updatedEmail)) target.setEmail(updatedEmail);
-
-        String updatedFirstName = source.getFirstName();
-        if (isNotEmpty(updatedFirstName)) target.setFirstName(updatedFirstName);
-
-        String updatedLastName = source.getLastName();
-        if (isNotEmpty(updatedLastName)) target.setLastName(updatedLastName);
-
-        LocalDate updatedBirthDate = source.getBirthDate();
-        if (isNotEmpty(updatedBirthDate)) target.setBirthDate(updatedBirthDate);
+    // Writes only the changed columns in one UPDATE guarded by the version they were applied to.
+    // Without an expected version a concurrent write just means re-applying the change to the newer row;
+    // with some (If-Match) the client has to decide, so it gets 412.
+    private User updateFields(Long id, Set<Long> expectedVersions, Function<User, List<String>> change) {
+        boolean evicted = false;
+        for (int attempt = 0; attempt < maxUpdateAttempts; attempt++) {
+            User current = findById(id);
+            if (current == null)
+                throw ApiExceptions.USER_NOT_FOUND;
+            if (expectedVersions != null && !expectedVersions.contains(current.getVersion())) {
+                if (evicted)
+                    throw ApiExceptions.VERSION_MISMATCH;
+                // the cached copy may be older than what the client saw
+                userCache.evict(id);
+                evicted = true;
+                continue;
+            }
 
-        String updatedAddress = source.getAddress();
-        if (isNotEmpty(updatedAddress)) target.setAddress(updatedAddress);
+            List<String> changedFields = change.apply(current);
+            validateUserForPatch(current, changedFields);
+            if (changedFields.isEmpty())
+                return current;
 
-        String updatedPhoneNumber = source.getPhoneNumber();
-        if (isNotEmpty(updatedPhoneNumber)) target.setPhoneNumber(updatedPhoneNumber);
+            long version = current.getVersion();
+            int updated;
+            try {
+                updated = transactionTemplate.execute(status -> {
+                    int count = userRepository.updateFields(id, version, UserPatchUtils.valuesOf(current, changedFields));
+                    if (count == 1)
+                        userChangeRepository.append(List.of(UserChangeDTO.updated(id, version + 1, changedFields)));
+                    return count;
+                });
+            } catch (DataIntegrityViolationException e) {
+                throw isDuplicateEmail(e) ? ApiExceptions.DUPLICATE_EMAIL : e;
+            }
+            if (updated == 1) {
+                current.setVersion(version + 1);
+                userCache.put(id, new User(current));
+                if (changedFields.contains("email"))
+                    emailFilter.put(current.getEmail());
+                if (birthDateIndex != null && changedFields.contains("birthDate"))
+                    birthDateIndex.put(id, current.getBirthDate());
+                return current;
+            }
+            userCache.evict(id);
+            evicted = true;
+        }
+        throw ApiExceptions.VERSION_CONFLICT;
     }
 
-    private void validateUserForPatch(User user) throws ConstraintViolationException {
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<User>> violations = validator.validate(user);
+    // the stored user was valid already, so only the patched properties need checking
+    private void validateUserForPatch(User user, List<String> changedFields) throws ConstraintViolationException {
+        Set<ConstraintViolation<User>> violations = new HashSet<>();
+        for (String field : changedFields) {
+            violations.addAll(validator.validateProperty(user, field));
+        }
         if (!violations.isEmpty())
             throw new ConstraintViolationException(violations);
     }
 
-    private <T> boolean isNotEmpty(T field) {
-        return field != null && !field.equals("");
-    }
-
     private ApiException validateUserIsNull(User user) {
         if (user == null
                 || (user.getUserId() == null && user.getEmail() == null && user.getFirstName() == null
                     && user.getLastName() == null && user.getBirthDate() == null
                     && user.getAddress() == null && user.getPhoneNumber() == null)) {
-            return new ApiException(HttpStatus.BAD_REQUEST,
-                    List.of(new ApiError("", StringCodeConstants.NO_DATA_SUBMITTED)));
+            return ApiExceptions.NO_DATA_SUBMITTED;
         } else
             return null;
     }
@@ -0,0 +1,13 @@
+-- matches what ddl-auto=update produced, so existing databases are baselined without changes
+create sequence if not exists users_seq start with 1 increment by 50;
+
+create table if not exists users (
+    user_id      bigint       not null,
+    email        varchar(255),
+    first_name   varchar(255),
+    last_name    varchar(255),
+    birth_date   date,
+    address      varchar(255),
+    phone_number varchar(255),
+    primary key (user_id)
+);
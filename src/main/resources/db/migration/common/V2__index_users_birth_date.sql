@@ -0,0 +1 @@
+create index if not exists idx_users_birth_date on users (birth_date, user_id);
@@ -0,0 +1,6 @@
+-- next row to read for each resumable import, written after every committed chunk
+create table if not exists user_imports (
+    import_id  varchar(64) not null,
+    checkpoint bigint      not null,
+    primary key (import_id)
+);
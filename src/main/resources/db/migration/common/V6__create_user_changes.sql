@@ -0,0 +1,19 @@
+-- transactional outbox: one row per user mutation, written in the transaction of the change
+create table if not exists user_changes (
+    change_id  bigint generated by default as identity,
+    user_id    bigint      not null,
+    operation  varchar(8)  not null,
+    version    bigint,
+    fields     varchar(255),
+    changed_at timestamp   not null,
+    primary key (change_id)
+);
+
+-- last change id handled by each reader of the outbox: the relay, and how far old changes were pruned
+create table if not exists user_change_offsets (
+    consumer       varchar(64) not null,
+    last_change_id bigint      not null,
+    primary key (consumer)
+);
+insert into user_change_offsets (consumer, last_change_id) values ('relay', 0);
+insert into user_change_offsets (consumer, last_change_id) values ('pruned', 0);
@@ -0,0 +1,7 @@
+-- the single row every transaction that appends to user_changes locks first, so that change ids are taken
+-- in the order their transactions commit
+create table if not exists user_change_append_lock (
+    id int not null,
+    primary key (id)
+);
+insert into user_change_append_lock (id) values (1);
@@ -0,0 +1 @@
+create unique index if not exists ux_users_email on users (email);
@@ -0,0 +1,4 @@
+-- concurrently, so users stays writable while the index is built; Flyway runs it outside a transaction.
+-- A build that fails leaves an invalid index behind, which the drop clears when the migration is rerun
+drop index concurrently if exists ux_users_email;
+create unique index concurrently ux_users_email on users (email);
@@ -0,0 +1,2 @@
+-- rows created while user_id was an identity column must not collide with sequence ids
+select setval('users_seq', (select coalesce(max(user_id), 0) + 1 from users), false);
@@ -0,0 +1,5 @@
+-- the pooled optimizer reads the first value as the top of a block of 50 (value - 49 .. value), so the next value
+-- must be at least max(user_id) + 50; V3 left it at max(user_id) + 1. A sequence already past that is kept as is
+select setval('users_seq', greatest(
+        (select coalesce(max(user_id), 0) + 50 from users),
+        (select case when is_called then last_value + 50 else last_value end from users_seq)), false);
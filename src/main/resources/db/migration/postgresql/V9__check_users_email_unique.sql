@@ -0,0 +1,12 @@
+-- databases baselined from the ddl-auto=update schema may hold the same email more than once, which the unique
+-- index in V10 cannot be built over. Stop here naming them, so they can be merged or deleted before a rerun
+do $$
+declare
+    duplicates text;
+begin
+    select string_agg(email, ', ') into duplicates
+    from (select email from users where email is not null group by email having count(*) > 1 limit 20) duplicate;
+    if duplicates is not null then
+        raise exception 'users.email must be unique before ux_users_email is built; duplicated: %', duplicates;
+    end if;
+end $$;
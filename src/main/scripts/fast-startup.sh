@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Run by the fast-startup Maven profile from the project directory.
+#   fast-startup.sh train <final name>   CDS training run of the AOT build, writes target/fast-startup/app.jsa
+#   fast-startup.sh report <final name>  startup time and RSS of the plain jar against the AOT and CDS variants
+# Every run boots against an in-memory H2 database and exits once ready; RUNS (default 3) runs per variant,
+# the median is reported. Apart from the first row, every variant runs the fast-startup profile (ddl-auto=none),
+# so the rows after it differ only in AOT and CDS.
+set -euo pipefail
+
+mode=$1
+name=$2
+dir=target/fast-startup
+main=com.nesmy.clearsolutionstask.ClearSolutionsTaskApplication
+runs=${RUNS:-3}
+
+jars() {
+  find "$1" -name '*.jar' | sort | sed 's/^/:/' | tr -d '\n'
+}
+
+# CDS needs the classpath to be the same, in the same order, at training and at runtime
+classpath="$dir/app.jar$(jars "$dir/lib")$(jars "$dir/training")"
+# the fat jar's launcher finds the database driver on the application class path
+fat_jar=(-cp "target/$name-exec.jar$(jars "$dir/training")" org.springframework.boot.loader.JarLauncher)
+
+app_args=(
+  --spring.datasource.url="jdbc:h2:mem:startup"
+  --spring.datasource.username=sa
+  --spring.datasource.password=
+  --server.port=0
+  --user.startup.exit-when-ready=true
+)
+ddl=(-Dspring.profiles.active=fast-startup)
+aot=(-Dspring.aot.enabled=true)
+
+# prints "<ready ms> <rss MB>" from the line StartupReportConfig logs
+startup() {
+  "$@" "${app_args[@]}" 2>&1 | sed -n 's/.*Ready in \([0-9]*\) ms, RSS \([0-9-]*\) MB.*/\1 \2/p'
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+report() {
+  local label=$1 results
+  shift
+  results=$(for _ in $(seq "$runs"); do startup "$@"; done)
+  if [ -z "$results" ]; then
+    echo "$label did not start" >&2
+    exit 1
+  fi
+  printf '%-28s %10s %8s\n' "$label" \
+    "$(cut -d' ' -f1 <<< "$results" | median)" "$(cut -d' ' -f2 <<< "$results" | median)"
+}
+
+case $mode in
+  train)
+    cp "target/$name.jar" "$dir/app.jar"
+    rm -f "$dir/app.jsa"
+    startup java -XX:ArchiveClassesAtExit="$dir/app.jsa" "${ddl[@]}" "${aot[@]}" -cp "$classpath" "$main" > /dev/null
+    test -f "$dir/app.jsa"
+    ;;
+  report)
+    printf '%-28s %10s %8s\n' variant 'ready ms' 'RSS MB'
+    report 'jar, ddl-auto=validate' java "${fat_jar[@]}"
+    report 'jar' java "${ddl[@]}" "${fat_jar[@]}"
+    report 'classpath' java "${ddl[@]}" -cp "$classpath" "$main"
+    report 'classpath + AOT' java "${ddl[@]}" "${aot[@]}" -cp "$classpath" "$main"
+    report 'classpath + AOT + CDS' java -XX:SharedArchiveFile="$dir/app.jsa" "${ddl[@]}" "${aot[@]}" \
+      -cp "$classpath" "$main"
+    ;;
+  *)
+    echo "usage: $0 train|report <final name>" >&2
+    exit 2
+    ;;
+esac
@@ -0,0 +1,44 @@
+package com.nesmy.clearsolutionstask.repository;
+
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Appends to the same outbox as UserChangeRepository, under the same lock, so changes written here are relayed
+// in order with the servlet variant's by whichever instance relays. Appends must run inside the caller's
+// transaction and be its last statement.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserChangeRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveUserChangeRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> append(UserChangeDTO change) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql("insert into user_changes " +
+                        "(user_id, operation, version, fields, changed_at) " +
+                        "values (:userId, :operation, :version, :fields, :changedAt)")
+                .bind("userId", change.getUserId())
+                .bind("operation", change.getOperation().name())
+                .bind("changedAt", LocalDateTime.now());
+        insert = change.getVersion() == null
+                ? insert.bindNull("version", Long.class)
+                : insert.bind("version", change.getVersion());
+        insert = change.getFields() == null
+                ? insert.bindNull("fields", String.class)
+                : insert.bind("fields", String.join(",", change.getFields()));
+        return databaseClient.sql("select id from user_change_append_lock where id = 1 for update")
+                .fetch()
+                .first()
+                .then(insert.then());
+    }
+}
@@ -0,0 +1,101 @@
+package com.nesmy.clearsolutionstask.repository;
+
+import com.nesmy.clearsolutionstask.entity.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+// Plain SQL over R2DBC; the JPA annotations on User mean nothing to Spring Data R2DBC.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository {
+
+    private static final String COLUMNS = "user_id, email, first_name, last_name, birth_date, address, phone_number";
+    private static final String SELECT_COLUMNS = COLUMNS + ", version";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<User> findById(Long id) {
+        return databaseClient.sql("select " + SELECT_COLUMNS + " from users where user_id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    public Flux<User> findByBirthDateBetween(LocalDate startDate, LocalDate endDate) {
+        return databaseClient.sql("select " + SELECT_COLUMNS + " from users where birth_date between :startDate and :endDate " +
+                        "order by birth_date, user_id")
+                .bind("startDate", startDate)
+                .bind("endDate", endDate)
+                .map(ReactiveUserRepository::toUser)
+                .all();
+    }
+
+    // nextval is the top of a block Hibernate's pooled optimizer will never hand out, so ids do not collide
+    public Mono<User> insert(User user) {
+        return bindColumns(databaseClient.sql("insert into users (" + COLUMNS + ") values (nextval('users_seq'), " +
+                        ":email, :firstName, :lastName, :birthDate, :address, :phoneNumber)"), user)
+                .filter(statement -> statement.returnGeneratedValues("user_id"))
+                .map(row -> row.get("user_id", Long.class))
+                .one()
+                .map(id -> {
+                    User saved = new User(user);
+                    saved.setUserId(id);
+                    saved.setVersion(0L);
+                    return saved;
+                });
+    }
+
+    // only applies to the version the user was read at, so 0 rows means a concurrent write got there first
+    public Mono<Long> update(User user, long version) {
+        return bindColumns(databaseClient.sql("update users set email = :email, first_name = :firstName, " +
+                        "last_name = :lastName, birth_date = :birthDate, address = :address, " +
+                        "phone_number = :phoneNumber, version = version + 1 " +
+                        "where user_id = :id and version = :version"), user)
+                .bind("id", user.getUserId())
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("delete from users where user_id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindColumns(DatabaseClient.GenericExecuteSpec spec, User user) {
+        spec = bind(spec, "email", user.getEmail(), String.class);
+        spec = bind(spec, "firstName", user.getFirstName(), String.class);
+        spec = bind(spec, "lastName", user.getLastName(), String.class);
+        spec = bind(spec, "birthDate", user.getBirthDate(), LocalDate.class);
+        spec = bind(spec, "address", user.getAddress(), String.class);
+        return bind(spec, "phoneNumber", user.getPhoneNumber(), String.class);
+    }
+
+    private <T> DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, T value,
+                                                        Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static User toUser(Readable row) {
+        User user = new User(row.get("user_id", Long.class), row.get("email", String.class),
+                row.get("first_name", String.class), row.get("last_name", String.class),
+                row.get("birth_date", LocalDate.class), row.get("address", String.class),
+                row.get("phone_number", String.class));
+        user.setVersion(row.get("version", Long.class));
+        return user;
+    }
+}
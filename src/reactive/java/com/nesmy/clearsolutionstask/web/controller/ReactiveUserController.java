@@ -0,0 +1,98 @@
+package com.nesmy.clearsolutionstask.web.controller;
+
+import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.exceptions.ApiError;
+import com.nesmy.clearsolutionstask.exceptions.ApiException;
+import com.nesmy.clearsolutionstask.utils.ETagUtils;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.web.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Mirrors UserController; GlobalExceptionHandler applies to annotated WebFlux controllers as well.
+@RestController
+@Validated
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @Autowired
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    @PostMapping("")
+    public Mono<ResponseEntity<DataDTO<User>>> create(@RequestBody DataDTO<@Valid User> body) {
+        return userService.save(body.getData())
+                .map(newUser -> ResponseEntity.status(HttpStatus.CREATED).body(new DataDTO<>(newUser)));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<DataDTO<User>>> update(@PathVariable Long id, @RequestBody DataDTO<@Valid User> body,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Mono<User> updatedUser = ifMatch == null
+                ? userService.update(id, body.getData())
+                : userService.update(id, body.getData(), ETagUtils.parseIfMatch(ifMatch));
+        return updatedUser.map(user ->
+                ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), user).body(new DataDTO<>(user)));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<DataDTO<User>>> updatePartially(@PathVariable Long id, @RequestBody DataDTO<User> body,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Mono<User> updatedUser = ifMatch == null
+                ? userService.patch(id, body.getData())
+                : userService.patch(id, body.getData(), ETagUtils.parseIfMatch(ifMatch));
+        return updatedUser.map(user ->
+                ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), user).body(new DataDTO<>(user)));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> delete(@PathVariable Long id) {
+        return userService.deleteById(id)
+                .flatMap(isDeleted -> isDeleted
+                        ? Mono.just(new ResponseEntity<>("User was successfully deleted.", HttpStatus.OK))
+                        : Mono.error(new ApiException(HttpStatus.NOT_FOUND,
+                                List.of(new ApiError("userId", StringCodeConstants.NOT_FOUND)))));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<DataDTO<User>>> findById(@PathVariable Long id) {
+        return userService.findById(id)
+                .switchIfEmpty(Mono.error(new ApiException(HttpStatus.NOT_FOUND,
+                        List.of(new ApiError("userId", StringCodeConstants.NOT_FOUND)))))
+                .map(user -> ETagUtils.withETag(ResponseEntity.status(HttpStatus.OK), user).body(new DataDTO<>(user)));
+    }
+
+    @GetMapping("")
+    public Mono<ResponseEntity<DataDTO<List<User>>>> findByBirthDateBetween(
+            @RequestParam LocalDate startBirthDate,
+            @RequestParam LocalDate endBirthDate) {
+        return userService.findByBirthDateBetween(startBirthDate, endBirthDate)
+                .collectList()
+                .map(users -> ResponseEntity.status(HttpStatus.OK).body(new DataDTO<>(users)));
+    }
+
+    // rows are pulled from the database only as fast as the client reads them
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> streamByBirthDateBetween(
+            @RequestParam LocalDate startBirthDate,
+            @RequestParam LocalDate endBirthDate) {
+        return userService.findByBirthDateBetween(startBirthDate, endBirthDate);
+    }
+}
@@ -0,0 +1,27 @@
+package com.nesmy.clearsolutionstask.web.service;
+
+import com.nesmy.clearsolutionstask.entity.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+public interface ReactiveUserService {
+
+    Mono<User> findById(Long id);
+
+    Mono<User> save(User user);
+
+    Mono<Boolean> deleteById(Long id);
+
+    Flux<User> findByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate);
+
+    Mono<User> update(Long id, User user);
+
+    Mono<User> update(Long id, User user, Set<Long> expectedVersions);
+
+    Mono<User> patch(Long id, User user);
+
+    Mono<User> patch(Long id, User user, Set<Long> expectedVersions);
+}
@@ -0,0 +1,185 @@
+package com.nesmy.clearsolutionstask.web.service;
+
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.exceptions.ApiError;
+import com.nesmy.clearsolutionstask.exceptions.ApiException;
+import com.nesmy.clearsolutionstask.exceptions.ApiExceptions;
+import com.nesmy.clearsolutionstask.repository.ReactiveUserChangeRepository;
+import com.nesmy.clearsolutionstask.repository.ReactiveUserRepository;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.utils.UserPatchUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+// Same rules and error codes as UserServiceImpl, without blocking a thread on the database.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveUserChangeRepository userChangeRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Validator validator;
+    @Value("${user.min-age}")
+    private int minAge;
+    @Value("${user.update.max-attempts}")
+    private int maxUpdateAttempts;
+
+    @Autowired
+    public ReactiveUserServiceImpl(ReactiveUserRepository userRepository,
+                                   ReactiveUserChangeRepository userChangeRepository,
+                                   TransactionalOperator transactionalOperator, Validator validator) {
+        this.userRepository = userRepository;
+        this.userChangeRepository = userChangeRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+    }
+
+    @Override
+    public Mono<User> findById(Long id) {
+        return userRepository.findById(id);
+    }
+
+    @Override
+    public Mono<User> save(User user) {
+        ApiException apiException = validateUserIsNull(user);
+        if (apiException != null)
+            return Mono.error(apiException);
+        if (UserServiceImpl.calculateAge(user.getBirthDate()) <= minAge)
+            return Mono.error(new ApiException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    List.of(new ApiError("birthDate", StringCodeConstants.BIRTHDATE_IS_LESS_THAN_18))));
+        // as in UserServiceImpl, every write records its change event in its own transaction, as the last statement
+        return userRepository.insert(user)
+                .flatMap(saved -> userChangeRepository.append(UserChangeDTO.created(saved)).thenReturn(saved))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DuplicateKeyException.class, ReactiveUserServiceImpl::duplicateEmail);
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(Long id) {
+        return userRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.just(false)
+                        : userChangeRepository.append(UserChangeDTO.deleted(id)).thenReturn(true))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Flux<User> findByBirthDateBetween(LocalDate startBirthDate, LocalDate endBirthDate) {
+        if (!startBirthDate.isBefore(endBirthDate))
+            return Flux.error(new ApiException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    List.of(new ApiError("", StringCodeConstants.START_DATE_IS_NOT_BEFORE_END_DATE))));
+        return userRepository.findByBirthDateBetween(startBirthDate, endBirthDate);
+    }
+
+    @Override
+    public Mono<User> update(Long id, User user) {
+        return update(id, user, null);
+    }
+
+    @Override
+    public Mono<User> update(Long id, User user, Set<Long> expectedVersions) {
+        ApiException apiException = validateKey(id, user);
+        if (apiException != null)
+            return Mono.error(apiException);
+        return updateFields(id, expectedVersions, current -> UserPatchUtils.replaceFields(user, current), 0);
+    }
+
+    @Override
+    public Mono<User> patch(Long id, User user) {
+        return patch(id, user, null);
+    }
+
+    @Override
+    public Mono<User> patch(Long id, User user, Set<Long> expectedVersions) {
+        ApiException apiException = validateKey(id, user);
+        if (apiException != null)
+            return Mono.error(apiException);
+        return updateFields(id, expectedVersions, current -> UserPatchUtils.updateFieldsForPatch(user, current), 0);
+    }
+
+    // As in UserServiceImpl: the UPDATE is guarded by the version the change was applied to. Without an expected
+    // version a concurrent write just means re-applying the change to the newer row; with some (If-Match) the
+    // client has to decide, so it gets 412.
+    private Mono<User> updateFields(Long id, Set<Long> expectedVersions, Function<User, List<String>> change,
+                                    int attempt) {
+        if (attempt == maxUpdateAttempts)
+            return Mono.error(ApiExceptions.VERSION_CONFLICT);
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(notFound()))
+                .flatMap(current -> {
+                    if (expectedVersions != null && !expectedVersions.contains(current.getVersion()))
+                        return Mono.error(ApiExceptions.VERSION_MISMATCH);
+                    List<String> changedFields = change.apply(current);
+                    Set<ConstraintViolation<User>> violations = new HashSet<>();
+                    for (String field : changedFields) {
+                        violations.addAll(validator.validateProperty(current, field));
+                    }
+                    if (!violations.isEmpty())
+                        return Mono.error(new ConstraintViolationException(violations));
+                    if (changedFields.isEmpty())
+                        return Mono.just(current);
+                    long version = current.getVersion();
+                    return userRepository.update(current, version)
+                            .flatMap(updated -> updated == 0
+                                    ? Mono.just(updated)
+                                    : userChangeRepository.append(
+                                            UserChangeDTO.updated(id, version + 1, changedFields)).thenReturn(updated))
+                            .as(transactionalOperator::transactional)
+                            .onErrorMap(DuplicateKeyException.class, ReactiveUserServiceImpl::duplicateEmail)
+                            .flatMap(updated -> {
+                                if (updated == 0)
+                                    return updateFields(id, expectedVersions, change, attempt + 1);
+                                current.setVersion(version + 1);
+                                return Mono.just(current);
+                            });
+                });
+    }
+
+    // the unique index is the only email check here, so its violation is what tells the client about a taken email
+    private static Throwable duplicateEmail(DuplicateKeyException e) {
+        return UserServiceImpl.isDuplicateEmail(e) ? ApiExceptions.DUPLICATE_EMAIL : e;
+    }
+
+    private ApiException validateKey(Long id, User user) {
+        ApiException apiException = validateUserIsNull(user);
+        if (apiException == null && !Objects.equals(id, user.getUserId()))
+            apiException = new ApiException(HttpStatus.BAD_REQUEST,
+                    List.of(new ApiError("userId", StringCodeConstants.KEY_FIELD_PARAMETERS_MISMATCH)));
+        return apiException;
+    }
+
+    private ApiException notFound() {
+        return new ApiException(HttpStatus.NOT_FOUND,
+                List.of(new ApiError("userId", StringCodeConstants.NOT_FOUND)));
+    }
+
+    private ApiException validateUserIsNull(User user) {
+        if (user == null
+                || (user.getUserId() == null && user.getEmail() == null && user.getFirstName() == null
+                    && user.getLastName() == null && user.getBirthDate() == null
+                    && user.getAddress() == null && user.getPhoneNumber() == null)) {
+            return new ApiException(HttpStatus.BAD_REQUEST,
+                    List.of(new ApiError("", StringCodeConstants.NO_DATA_SUBMITTED)));
+        } else
+            return null;
+    }
+}
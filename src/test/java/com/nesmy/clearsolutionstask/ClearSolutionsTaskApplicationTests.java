@@ -1,13 +1,29 @@
 package com.nesmy.clearsolutionstask;
 
+import com.nesmy.clearsolutionstask.web.filter.ConcurrencyLimitFilter;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
+@AutoConfigureTestDatabase
 class ClearSolutionsTaskApplicationTests {
 
+    @Autowired
+    private ApplicationContext context;
+
     @Test
     void contextLoads() {
     }
 
+    // the default build runs on platform threads, where requests queue on the Tomcat pool instead of being shed
+    @Test
+    void platformThreadsHaveNoConcurrencyLimit() {
+        assertThat(context.getBeansOfType(ConcurrencyLimitFilter.class)).isEmpty();
+    }
+
 }
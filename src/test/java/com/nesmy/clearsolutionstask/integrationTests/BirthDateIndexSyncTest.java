@@ -0,0 +1,65 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.nesmy.clearsolutionstask.dto.PageDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.web.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "user.birth-date-index.enabled=true")
+@AutoConfigureTestDatabase
+public class BirthDateIndexSyncTest {
+
+    private final LocalDate start = LocalDate.of(1970, 1, 1);
+    private final LocalDate end = LocalDate.of(2000, 1, 1);
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testIndexFollowsWritesAndAnswersWithoutStatements() {
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            batch.add(new User("batch" + i + "@gmail.com", "B", "B", LocalDate.of(1985, 1, 1).plusYears(i), null, null));
+        userService.saveAll(batch.iterator());
+        User user = userService.save(new User("a@gmail.com", "A", "A", LocalDate.of(1990, 5, 5), null, null));
+        userService.patch(user.getUserId(), new User(user.getUserId(), null, null, null, LocalDate.of(2001, 1, 1), null, null));
+        userService.deleteById(batch.get(0).getUserId());
+        userService.deleteAllById(List.of(batch.get(1).getUserId()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long count = userService.countByBirthDateBetween(start, end);
+        PageDTO<Map<String, Object>> page = userService.findFieldsByBirthDateBetween(start, end,
+                List.of("userId", "birthDate"), null, 10);
+        long statements = statistics.getPrepareStatementCount();
+
+        List<Long> expectedIds = userRepository.findIdsByBirthDateBetween(start, end, PageRequest.ofSize(10));
+        assertThat(statements).isZero();
+        assertThat(count).isEqualTo(3).isEqualTo(userRepository.countByBirthDateBetween(start, end));
+        assertThat(page.getData()).extracting(row -> row.get("userId")).containsExactlyElementsOf(expectedIds);
+        assertThat(page.getData().get(0).get("birthDate")).isEqualTo(LocalDate.of(1987, 1, 1));
+        assertThat(page.getNextCursor()).isNull();
+    }
+}
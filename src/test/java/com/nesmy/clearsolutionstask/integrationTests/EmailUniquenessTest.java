@@ -0,0 +1,107 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.nesmy.clearsolutionstask.dto.BatchRejectionDTO;
+import com.nesmy.clearsolutionstask.dto.BatchResultDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.exceptions.ApiError;
+import com.nesmy.clearsolutionstask.exceptions.ApiException;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.web.service.UserService;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureTestDatabase
+public class EmailUniquenessTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testSaveWithTakenEmailIsConflict() {
+        userService.save(user("a@gmail.com"));
+
+        assertDuplicateEmail(() -> userService.save(user("a@gmail.com")));
+        assertThat(userService.findByEmail("a@gmail.com")).isNotNull();
+    }
+
+    @Test
+    public void testConstraintCatchesEmailTheFilterHasNotSeen() {
+        // written around the service, as another instance would
+        userRepository.save(user("race@gmail.com"));
+
+        assertDuplicateEmail(() -> userService.save(user("race@gmail.com")));
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPatchToTakenEmailIsConflict() {
+        userService.save(user("a@gmail.com"));
+        User other = userService.save(user("b@gmail.com"));
+
+        assertDuplicateEmail(() -> userService.patch(other.getUserId(),
+                new User(other.getUserId(), "a@gmail.com", null, null, null, null, null)));
+    }
+
+    @Test
+    public void testBatchRejectsTakenAndRepeatedEmails() {
+        userService.save(user("a@gmail.com"));
+        userRepository.save(user("race@gmail.com"));
+
+        BatchResultDTO first = userService.saveAll(List.of(user("a@gmail.com"), user("b@gmail.com"), user("b@gmail.com")).iterator());
+        BatchResultDTO second = userService.saveAll(List.of(user("c@gmail.com"), user("race@gmail.com")).iterator());
+
+        assertThat(first.getCreated()).isEqualTo(1);
+        assertThat(first.getRejected()).extracting(BatchRejectionDTO::getIndex).containsExactly(0L, 2L);
+        assertThat(second.getCreated()).isEqualTo(1);
+        assertThat(second.getRejected()).extracting(BatchRejectionDTO::getIndex).containsExactly(1L);
+        assertThat(second.getRejected().get(0).getErrors()).extracting(ApiError::getMessage)
+                .containsExactly(StringCodeConstants.DUPLICATE_EMAIL);
+        assertThat(userService.findByEmail("c@gmail.com")).isNotNull();
+    }
+
+    @Test
+    public void testFindsEmailTheFilterHasNotSeen() {
+        userRepository.save(user("elsewhere@gmail.com"));
+
+        assertThat(userService.findByEmail("elsewhere@gmail.com")).isNotNull();
+    }
+
+    @Test
+    public void testFindByUnknownEmail() {
+        assertThat(userService.findByEmail("nobody@gmail.com")).isNull();
+    }
+
+    private void assertDuplicateEmail(Runnable request) {
+        assertThatThrownBy(request::run).isInstanceOfSatisfying(ApiException.class, e -> {
+            assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+            assertThat(e.getApiErrors()).extracting(ApiError::getMessage)
+                    .containsExactly(StringCodeConstants.DUPLICATE_EMAIL);
+        });
+    }
+
+    private static User user(String email) {
+        return new User(email, "F", "L", LocalDate.of(1990, 1, 1), null, null);
+    }
+}
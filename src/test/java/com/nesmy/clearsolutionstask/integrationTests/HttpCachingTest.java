@@ -0,0 +1,120 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.web.service.UserService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// against a running server, since compression happens in the connector
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase
+public class HttpCachingTest {
+
+    private static final String RANGE = "/users?startBirthDate=1970-01-01&endBirthDate=2000-01-01";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @Before
+    public void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            users.add(new User("user" + i + "@gmail.com", "F", "L", LocalDate.of(1980, 1, 1).plusDays(i), null, null));
+        userService.saveAll(users.iterator());
+        user = userRepository.findByEmail("user0@gmail.com").orElseThrow();
+    }
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testRangeIsCompressedAndRevalidated() throws Exception {
+        HttpResponse<byte[]> response = get(RANGE, null);
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(response.headers().firstValue(HttpHeaders.CACHE_CONTROL)).hasValue("max-age=5, private");
+        try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(new String(body.readAllBytes())).contains("user99@gmail.com");
+        }
+        String eTag = response.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+
+        HttpResponse<byte[]> notModified = get(RANGE, eTag);
+        assertThat(notModified.statusCode()).isEqualTo(304);
+        assertThat(notModified.body()).isEmpty();
+
+        userService.patch(user.getUserId(), new User(user.getUserId(), null, "Patched", null, null, null, null));
+        HttpResponse<byte[]> modified = get(RANGE, eTag);
+        assertThat(modified.statusCode()).isEqualTo(200);
+        assertThat(modified.headers().firstValue(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    public void testSmallResponsesAreNotCompressed() throws Exception {
+        HttpResponse<byte[]> response = get("/users/" + user.getUserId(), null);
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        assertThat(response.headers().firstValue(HttpHeaders.CACHE_CONTROL)).hasValue("no-cache, private");
+
+        String eTag = response.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        assertThat(get("/users/" + user.getUserId(), eTag).statusCode()).isEqualTo(304);
+    }
+
+    @Test
+    public void testEveryEndpointGetsItsOwnPolicy() throws Exception {
+        String range = "?startBirthDate=1970-01-01&endBirthDate=2000-01-01";
+        assertThat(cacheControl("/users/count" + range)).hasValue("max-age=60, private");
+        assertThat(cacheControl("/users/birth-years" + range)).hasValue("max-age=60, private");
+        assertThat(cacheControl("/users/export")).hasValue("no-store");
+        assertThat(cacheControl("/users/changes")).hasValue("no-store");
+        assertThat(cacheControl("/users/by-email/user0@gmail.com")).hasValue("no-cache, private");
+    }
+
+    private Optional<String> cacheControl(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = get(path, null);
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response.headers().firstValue(HttpHeaders.CACHE_CONTROL);
+    }
+
+    private HttpResponse<byte[]> get(String path, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        if (ifNoneMatch != null)
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,113 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class IdempotencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testParallelDuplicatesCreateOneUser() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return mvc.perform(create("retry-1", "a@gmail.com")).andReturn().getResponse();
+                }));
+            }
+            start.countDown();
+
+            MockHttpServletResponse first = responses.get(0).get();
+            assertThat(first.getStatus()).isEqualTo(201);
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertThat(response.get().getStatus()).isEqualTo(201);
+                assertThat(response.get().getContentAsString()).isEqualTo(first.getContentAsString());
+                assertThat(response.get().getHeader(HttpHeaders.ETAG)).isEqualTo(first.getHeader(HttpHeaders.ETAG));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testReplayIsServedAfterTheUserIsGone() throws Exception {
+        mvc.perform(create("retry-2", "b@gmail.com")).andExpect(status().isCreated());
+        // the replay never reaches the service, so it still answers with the original response
+        userRepository.deleteAllInBatch();
+
+        mvc.perform(create("retry-2", "b@gmail.com"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.email").value("b@gmail.com"));
+        assertThat(userRepository.count()).isZero();
+    }
+
+    @Test
+    public void testKeysAreScopedToTheRequestAndTheClient() throws Exception {
+        mvc.perform(create("retry-3", "c@gmail.com")).andExpect(status().isCreated());
+
+        mvc.perform(create("retry-3", "d@gmail.com"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errors[0].message").value(StringCodeConstants.IDEMPOTENCY_KEY_REUSED));
+        mvc.perform(create("retry-3", "d@gmail.com").header("X-API-Key", "another-client"))
+                .andExpect(status().isCreated());
+        mvc.perform(create("", "e@gmail.com")).andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletRequestBuilder create(String idempotencyKey, String email) throws Exception {
+        User user = new User(email, "A", "B", LocalDate.of(1990, 1, 1), null, null);
+        return post("/users")
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DataDTO<>(user)));
+    }
+}
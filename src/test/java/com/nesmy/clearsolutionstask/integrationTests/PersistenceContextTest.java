@@ -0,0 +1,102 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.utils.UserStreamWriter;
+import org.hibernate.Interceptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Bulk requests write in chunks of user.batch.size, each in its own transaction; the entities of a committed chunk
+// must not stay managed for the rest of the request. Every flush records how many entities it had to check.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "user.batch.size=" + PersistenceContextTest.BATCH_SIZE,
+        "spring.jpa.properties.hibernate.session_factory.interceptor="
+                + "com.nesmy.clearsolutionstask.integrationTests.PersistenceContextTest$FlushSampler"})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class PersistenceContextTest {
+
+    static final int BATCH_SIZE = 10;
+    private static final int USERS = 45;
+    private static final List<Integer> flushedEntities = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        flushedEntities.clear();
+    }
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+        jdbcTemplate.update("delete from user_changes");
+        jdbcTemplate.update("delete from user_imports");
+    }
+
+    @Test
+    public void testBatchHoldsOneChunkAtATime() throws Exception {
+        mvc.perform(post("/users/batch").contentType(UserStreamWriter.NDJSON_VALUE).content(ndjson(USERS)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(USERS));
+
+        assertThat(flushedEntities).isNotEmpty()
+                .allSatisfy(entities -> assertThat(entities).isLessThanOrEqualTo(BATCH_SIZE));
+    }
+
+    @Test
+    public void testImportHoldsOneChunkAtATime() throws Exception {
+        mvc.perform(post("/users/import").param("importId", "context.ndjson")
+                        .contentType(UserStreamWriter.NDJSON_VALUE).content(ndjson(USERS)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(USERS));
+
+        assertThat(flushedEntities).isNotEmpty()
+                .allSatisfy(entities -> assertThat(entities).isLessThanOrEqualTo(BATCH_SIZE));
+    }
+
+    private static String ndjson(int users) {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < users; i++) {
+            ndjson.append("{\"email\":\"user").append(i).append("@gmail.com\",\"firstName\":\"A\",\"lastName\":\"B\",")
+                    .append("\"birthDate\":\"1990-01-01\"}\n");
+        }
+        return ndjson.toString();
+    }
+
+    public static class FlushSampler implements Interceptor {
+
+        @Override
+        public void preFlush(Iterator<Object> entities) {
+            int count = 0;
+            for (; entities.hasNext(); entities.next()) {
+                count++;
+            }
+            flushedEntities.add(count);
+        }
+    }
+}
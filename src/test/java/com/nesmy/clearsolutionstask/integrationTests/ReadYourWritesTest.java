@@ -0,0 +1,71 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Without replicas, a client's range reads right after its own write do not share a result from before that write.
+// The range micro-cache stands in for an identical read that was in flight when the write committed.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "user.single-flight.range-cache-ms=60000")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class ReadYourWritesTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testWriterSeesItsOwnCreate() throws Exception {
+        create("writer", "a@gmail.com");
+        mvc.perform(range("reader")).andExpect(jsonPath("$.data", hasSize(1)));
+
+        create("writer", "b@gmail.com");
+
+        mvc.perform(range("writer")).andExpect(jsonPath("$.data", hasSize(2)));
+        // everyone else may get the shared result for up to range-cache-ms
+        mvc.perform(range("reader")).andExpect(jsonPath("$.data", hasSize(1)));
+    }
+
+    private void create(String client, String email) throws Exception {
+        User user = new User(email, "A", "B", LocalDate.of(1990, 1, 1), null, null);
+        mvc.perform(post("/users").header("X-API-Key", client).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(user))))
+                .andExpect(status().isCreated());
+    }
+
+    private static RequestBuilder range(String client) {
+        return get("/users").header("X-API-Key", client)
+                .param("startBirthDate", "1980-01-01")
+                .param("endBirthDate", "2000-01-01");
+    }
+}
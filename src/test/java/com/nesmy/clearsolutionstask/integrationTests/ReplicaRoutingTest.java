@@ -0,0 +1,102 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import org.flywaydb.core.Flyway;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+// two H2 databases that do not replicate, so each read shows which one served it
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "user.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "user.replica.read-your-writes-ms=60000"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@AutoConfigureMockMvc
+public class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeClass
+    public static void setUpReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").locations("classpath:db/migration/common").load().migrate();
+    }
+
+    @After
+    public void tearDown() {
+        primary.update("delete from users");
+        replica.update("delete from users");
+    }
+
+    @Test
+    public void testReadsGoToReplicaAndWritesToPrimary() throws Exception {
+        replica.update("insert into users (user_id, email, first_name, last_name, birth_date, version) "
+                + "values (1, 'replica@gmail.com', 'R', 'R', date '1990-01-01', 0)");
+
+        findRange("reader").andExpect(jsonPath("$.data[*].email").value(containsInAnyOrder("replica@gmail.com")));
+
+        create("writer", "primary@gmail.com");
+        assertThat(primary.queryForObject("select count(*) from users", Long.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from users where email = 'primary@gmail.com'", Long.class))
+                .isZero();
+    }
+
+    @Test
+    public void testClientReadsItsOwnWritesFromPrimary() throws Exception {
+        create("writer", "own@gmail.com");
+
+        findRange("writer").andExpect(jsonPath("$.data[*].email").value(containsInAnyOrder("own@gmail.com")));
+        findRange("reader").andExpect(jsonPath("$.data").isEmpty());
+    }
+
+    private void create(String client, String email) throws Exception {
+        User user = new User(email, "A", "B", LocalDate.of(1990, 1, 1), null, null);
+        mvc.perform(post("/users")
+                        .header("X-API-Key", client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(user))))
+                .andExpect(status().isCreated());
+    }
+
+    private ResultActions findRange(String client) throws Exception {
+        return mvc.perform(get("/users")
+                        .header("X-API-Key", client)
+                        .param("startBirthDate", "1980-01-01")
+                        .param("endBirthDate", "2000-01-01"))
+                .andExpect(status().isOk());
+    }
+}
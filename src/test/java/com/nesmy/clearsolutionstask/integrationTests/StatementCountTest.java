@@ -0,0 +1,243 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.utils.KeysetCursor;
+import com.nesmy.clearsolutionstask.web.service.UserService;
+import com.nesmy.clearsolutionstask.web.service.UserServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Upper bounds on the statements each endpoint prepares, measured with a cold users cache unless stated otherwise.
+// A failure here usually means an extra round trip or an N+1 crept in.
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class StatementCountTest {
+
+    private static final int USERS = 20;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++)
+            users.add(new User("user" + i + "@gmail.com", "F", "L", LocalDate.of(1980, 1, 1).plusMonths(i), null, null));
+        // through the service, so the email filter knows these users
+        userService.saveAll(users.iterator());
+        user = users.get(0);
+    }
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testCreate() throws Exception {
+        User newUser = new User("new@gmail.com", "N", "N", LocalDate.of(1990, 1, 1), null, null);
+
+        assertStatements(2, post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DataDTO<>(newUser))), status().isCreated());
+    }
+
+    @Test
+    public void testCreateBatch() throws Exception {
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            batch.add(new User("batch" + i + "@gmail.com", "B", "B", LocalDate.of(1990, 1, 1), null, null));
+
+        assertStatements(2, post("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)), status().isCreated());
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        User replacement = new User(user.getUserId(), "replaced@gmail.com", "R", "R", LocalDate.of(1990, 1, 1), "A", "P");
+
+        assertStatements(2, put("/users/{id}", user.getUserId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DataDTO<>(replacement))), status().isOk());
+    }
+
+    @Test
+    public void testPatch() throws Exception {
+        assertStatements(2, patchFirstName(), status().isOk());
+    }
+
+    @Test
+    public void testPatchWithWarmCache() throws Exception {
+        mvc.perform(get("/users/{id}", user.getUserId())).andExpect(status().isOk());
+        statistics.clear();
+
+        mvc.perform(patchFirstName()).andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        assertStatements(1, delete("/users/{id}", user.getUserId()), status().isOk());
+    }
+
+    @Test
+    public void testDeleteAllByIds() throws Exception {
+        // locking the ids that exist, so that only those get a change event, and the delete
+        assertStatements(2, delete("/users").param("ids", user.getUserId() + "," + (user.getUserId() + 1)),
+                status().isOk());
+    }
+
+    @Test
+    public void testDeleteAllByBirthDateRange() throws Exception {
+        // one id page, lock and delete per chunk, plus the empty page that ends the loop
+        assertStatements(4, delete("/users")
+                .param("startBirthDate", "1970-01-01")
+                .param("endBirthDate", "2000-01-01"), status().isOk());
+    }
+
+    @Test
+    public void testFindById() throws Exception {
+        assertStatements(1, get("/users/{id}", user.getUserId()), status().isOk());
+    }
+
+    @Test
+    public void testCreateWithTakenEmail() throws Exception {
+        User duplicate = new User(user.getEmail(), "N", "N", LocalDate.of(1990, 1, 1), null, null);
+
+        assertStatements(1, post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DataDTO<>(duplicate))), status().isConflict());
+    }
+
+    @Test
+    public void testFindByEmail() throws Exception {
+        assertStatements(1, get("/users/by-email/{email}", user.getEmail()), status().isOk());
+    }
+
+    @Test
+    public void testFindByUnknownEmail() throws Exception {
+        assertStatements(1, get("/users/by-email/{email}", "nobody@gmail.com"), status().isNotFound());
+    }
+
+    @Test
+    public void testFindFieldsById() throws Exception {
+        assertStatements(1, get("/users/{id}", user.getUserId()).param("fields", "email,birthDate"), status().isOk());
+    }
+
+    @Test
+    public void testFindByBirthDateBetween() throws Exception {
+        assertStatements(1, get("/users")
+                .param("startBirthDate", "1970-01-01")
+                .param("endBirthDate", "2000-01-01"), status().isOk());
+    }
+
+    @Test
+    public void testFindPageByBirthDateBetween() throws Exception {
+        assertStatements(1, get("/users")
+                .param("startBirthDate", "1970-01-01")
+                .param("endBirthDate", "2000-01-01")
+                .param("cursor", KeysetCursor.after(user).encode())
+                .param("limit", "5"), status().isOk());
+    }
+
+    @Test
+    public void testFindFieldsPageByBirthDateBetween() throws Exception {
+        assertStatements(1, get("/users")
+                .param("startBirthDate", "1970-01-01")
+                .param("endBirthDate", "2000-01-01")
+                .param("fields", "email")
+                .param("limit", "5"), status().isOk());
+    }
+
+    @Test
+    public void testStreamByBirthDateBetween() throws Exception {
+        assertStatements(1, get("/users")
+                .param("startBirthDate", "1970-01-01")
+                .param("endBirthDate", "2000-01-01")
+                .param("stream", "ndjson"), status().isOk());
+    }
+
+    @Test
+    public void testFindOlderThan() throws Exception {
+        assertStatements(1, get("/users/older-than/{age}", 30).param("limit", "5"), status().isOk());
+    }
+
+    @Test
+    public void testFindOlderThanRejectsAgeBeforeQuerying() throws Exception {
+        assertStatements(0, get("/users/older-than/{age}", Integer.MAX_VALUE), status().isBadRequest());
+    }
+
+    @Test
+    public void testCountByBirthDateBetween() throws Exception {
+        assertStatements(1, get("/users/count")
+                .param("startBirthDate", "1970-01-01")
+                .param("endBirthDate", "2000-01-01"), status().isOk());
+    }
+
+    @Test
+    public void testCountByBirthYear() throws Exception {
+        assertStatements(1, get("/users/birth-years")
+                .param("startBirthDate", "1970-01-01")
+                .param("endBirthDate", "2000-01-01"), status().isOk());
+    }
+
+    private RequestBuilder patchFirstName() throws Exception {
+        User patch = new User(user.getUserId(), null, "Patched", null, null, null, null);
+        return patch("/users/{id}", user.getUserId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new DataDTO<>(patch)));
+    }
+
+    private void assertStatements(long max, RequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        cacheManager.getCache(UserServiceImpl.USER_CACHE).clear();
+        statistics.clear();
+
+        mvc.perform(request).andExpect(expectedStatus);
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(max);
+    }
+}
@@ -0,0 +1,279 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.UserChangeRepository;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.web.service.UserService;
+import jakarta.servlet.AsyncListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "user.changes.poll-interval-ms=50",
+        "user.changes.relay.interval-ms=100"})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class UserChangeFeedTest {
+
+    private static final Path SINK_FILE = createTempFile();
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserChangeRepository userChangeRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String cursor;
+
+    @DynamicPropertySource
+    static void sinkFile(DynamicPropertyRegistry registry) {
+        registry.add("user.changes.sink-file", SINK_FILE::toString);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        cursor = nextCursor(mvc.perform(get("/users/changes")).andReturn());
+    }
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+        jdbcTemplate.update("update user_change_offsets set last_change_id = 0 where consumer = ?",
+                UserChangeRepository.PRUNED);
+    }
+
+    @Test
+    public void testEveryWriteIsRecordedOnce() throws Exception {
+        User user = create("a@gmail.com");
+        // rolled back, so nothing is recorded
+        mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(newUser("a@gmail.com")))))
+                .andExpect(status().isConflict());
+        User patch = new User(user.getUserId(), null, "Patched", null, null, null, null);
+        mvc.perform(patch("/users/{id}", user.getUserId()).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(patch))))
+                .andExpect(status().isOk());
+        mvc.perform(delete("/users/{id}", user.getUserId())).andExpect(status().isOk());
+
+        MvcResult result = mvc.perform(changes(cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[*].operation").value(contains("CREATED", "UPDATED", "DELETED")))
+                .andExpect(jsonPath("$.data[0].userId").value(user.getUserId()))
+                .andExpect(jsonPath("$.data[1].version").value(1))
+                .andExpect(jsonPath("$.data[1].fields").value(contains("firstName")))
+                .andExpect(jsonPath("$.data[2].version").doesNotExist())
+                .andReturn();
+
+        String next = nextCursor(result);
+        mvc.perform(changes(next))
+                .andExpect(jsonPath("$.data", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").value(next));
+    }
+
+    @Test
+    public void testLongPollIsAnsweredByTheNextChange() throws Exception {
+        MvcResult poll = mvc.perform(get("/users/changes").param("since", cursor).param("waitMs", "10000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        User user = userService.save(newUser("b@gmail.com"));
+
+        mvc.perform(asyncDispatch(poll))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[*].userId").value(contains(user.getUserId().intValue())));
+    }
+
+    @Test
+    public void testLongPollTimesOutWithTheSameCursor() throws Exception {
+        MvcResult poll = mvc.perform(get("/users/changes").param("since", cursor).param("waitMs", "100"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // MockMvc has no container to time the request out
+        for (AsyncListener listener : ((MockAsyncContext) poll.getRequest().getAsyncContext()).getListeners())
+            listener.onTimeout(null);
+
+        mvc.perform(asyncDispatch(poll))
+                .andExpect(jsonPath("$.data", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").value(cursor));
+    }
+
+    @Test
+    public void testRelayPublishesToTheSink() throws Exception {
+        User first = create("c@gmail.com");
+        User second = create("d@gmail.com");
+
+        List<Long> published = List.of();
+        for (int attempt = 0; attempt < 100 && !published.contains(second.getUserId()); attempt++) {
+            Thread.sleep(50);
+            published = Files.readAllLines(SINK_FILE).stream()
+                    .map(this::readTree)
+                    .map(change -> change.get("userId").asLong())
+                    .toList();
+        }
+        assertThat(published).containsSubsequence(first.getUserId(), second.getUserId());
+    }
+
+    @Test
+    public void testPrunedCursorIsGone() throws Exception {
+        create("e@gmail.com");
+        jdbcTemplate.update("update user_change_offsets set last_change_id = ? where consumer = ?",
+                Long.parseLong(cursor) + 1, UserChangeRepository.PRUNED);
+
+        mvc.perform(get("/users/changes").param("since", cursor))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.errors[0].message").value(StringCodeConstants.CHANGES_PRUNED));
+    }
+
+    @Test
+    public void testBulkDeleteRecordsOnlyDeletedUsers() throws Exception {
+        User user = create("a@gmail.com");
+        String afterCreate = nextCursor(mvc.perform(changes(cursor)).andReturn());
+
+        mvc.perform(delete("/users").param("ids", user.getUserId() + ",987654321"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+
+        mvc.perform(changes(afterCreate))
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].operation").value("DELETED"))
+                .andExpect(jsonPath("$.data[0].userId").value(user.getUserId()));
+    }
+
+    @Test
+    public void testChangeCommittedLateIsNotSkipped() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // a slow writer takes its change id and stays open
+            Future<?> slow = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                userChangeRepository.append(List.of(UserChangeDTO.deleted(1L)));
+                appended.countDown();
+                await(commit);
+            }));
+            assertThat(appended.await(5, TimeUnit.SECONDS)).isTrue();
+            // a later writer cannot take an id, let alone commit, before it
+            Future<?> fast = executor.submit(() -> transactionTemplate.executeWithoutResult(status ->
+                    userChangeRepository.append(List.of(UserChangeDTO.deleted(2L)))));
+            Thread.sleep(200);
+            assertThat(fast.isDone()).isFalse();
+            mvc.perform(changes(cursor)).andExpect(jsonPath("$.data", hasSize(0)));
+
+            commit.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+            fast.get(5, TimeUnit.SECONDS);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+        mvc.perform(changes(cursor))
+                .andExpect(jsonPath("$.data[*].userId").value(contains(1, 2)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private RequestBuilder changes(String since) throws Exception {
+        return asyncDispatch(mvc.perform(get("/users/changes").param("since", since).param("waitMs", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn());
+    }
+
+    private User create(String email) throws Exception {
+        MvcResult result = mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(newUser(email)))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.treeToValue(readTree(result.getResponse().getContentAsString()).get("data"), User.class);
+    }
+
+    private static User newUser(String email) {
+        return new User(email, "A", "B", LocalDate.of(1990, 1, 1), null, null);
+    }
+
+    private String nextCursor(MvcResult result) throws Exception {
+        if (result.getRequest().isAsyncStarted())
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        return readTree(result.getResponse().getContentAsString()).get("nextCursor").asText();
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path createTempFile() {
+        try {
+            Path file = Files.createTempFile("user-changes", ".ndjson");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
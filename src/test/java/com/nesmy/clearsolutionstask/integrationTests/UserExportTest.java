@@ -0,0 +1,121 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.utils.UserExportWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "user.rate-limit.enabled=false")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class UserExportTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Before
+    public void setUp() {
+        userRepository.saveAll(List.of(
+                new User("a@gmail.com", "A", "Smith, Jr.", LocalDate.of(1980, 1, 1), "Say \"hi\"", null),
+                new User("b@gmail.com", "B", "B", LocalDate.of(1995, 3, 3), "Lviv", "+380")));
+    }
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testCsvExportQuotesValues() throws Exception {
+        MockHttpServletResponse response = mvc.perform(get("/users/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        List<String> lines = response.getContentAsString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(response.getContentType()).startsWith(UserExportWriter.CSV_VALUE);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo("userId,email,firstName,lastName,birthDate,address,phoneNumber");
+        assertThat(lines).anyMatch(line -> line.endsWith(",a@gmail.com,A,\"Smith, Jr.\",1980-01-01,\"Say \"\"hi\"\"\","));
+    }
+
+    @Test
+    public void testNdjsonExportOfRangeWithGzip() throws Exception {
+        MockHttpServletResponse response = mvc.perform(get("/users/export")
+                        .param("format", "ndjson")
+                        .param("startBirthDate", "1990-01-01")
+                        .param("endBirthDate", "2000-01-01")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        List<String> lines = gunzip(response.getContentAsByteArray()).lines().toList();
+        assertThat(lines).hasSize(1);
+        JsonNode row = objectMapper.readTree(lines.get(0));
+        assertThat(row.get("email").asText()).isEqualTo("b@gmail.com");
+        assertThat(row.get("birthDate").asText()).isEqualTo("1995-03-03");
+        assertThat(row.get("userId").isNumber()).isTrue();
+    }
+
+    @Test
+    public void testExportHonoursGzipQuality() throws Exception {
+        for (String acceptEncoding : List.of("gzip;q=0, deflate", "br, *;q=0", "deflate")) {
+            MockHttpServletResponse response = mvc.perform(get("/users/export")
+                            .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isNull();
+            assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+            assertThat(response.getContentAsString(StandardCharsets.UTF_8)).startsWith("userId,");
+        }
+        for (String acceptEncoding : List.of("deflate, GZIP;q=0.5", "*")) {
+            assertThat(mvc.perform(get("/users/export").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andReturn().getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isEqualTo("gzip");
+        }
+    }
+
+    @Test
+    public void testExportRejectsHalfOpenRangeAndUnknownFormat() throws Exception {
+        mvc.perform(get("/users/export").param("startBirthDate", "1990-01-01"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.nesmy.clearsolutionstask.repository.UserImportRepository;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.utils.UserExportWriter;
+import com.nesmy.clearsolutionstask.utils.UserStreamWriter;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class UserImportTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserRepository userRepository;
+    @SpyBean
+    private UserImportRepository userImportRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+        jdbcTemplate.update("delete from user_imports");
+    }
+
+    @Test
+    public void testCsvImportReportsBadRowsAndKeepsGoing() throws Exception {
+        String csv = """
+                lastName,firstName,email,birthDate,phoneNumber
+                Muts,Andrii,a@gmail.com,1998-09-09,
+                Muts,Andrii,b@gmail.com,not-a-date,+380
+                Muts,Andrii,c@gmail.com,%s,
+                Muts,Andrii,a@gmail.com,1990-01-01,
+                Muts,,d@gmail.com,1990-01-01,
+                "Smith, Jr.",John,e@gmail.com,1980-01-01,+380
+                """.formatted(LocalDate.now().minusYears(10));
+
+        mvc.perform(post("/users/import").contentType(UserExportWriter.CSV_VALUE).content(csv))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejectedCount").value(4))
+                .andExpect(jsonPath("$.checkpoint").value(6))
+                .andExpect(jsonPath("$.rejected[0].index").value(1))
+                .andExpect(jsonPath("$.rejected[0].errors[0].fieldName").value("birthDate"))
+                .andExpect(jsonPath("$.rejected[0].errors[0].message").value(StringCodeConstants.MALFORMED_VALUE))
+                .andExpect(jsonPath("$.rejected[1].errors[0].message").value(StringCodeConstants.BIRTHDATE_IS_LESS_THAN_18))
+                .andExpect(jsonPath("$.rejected[2].errors[0].message").value(StringCodeConstants.DUPLICATE_EMAIL))
+                .andExpect(jsonPath("$.rejected[3].errors[0].fieldName").value("firstName"));
+
+        assertThat(userRepository.findByEmail("e@gmail.com")).hasValueSatisfying(user -> {
+            assertThat(user.getLastName()).isEqualTo("Smith, Jr.");
+            assertThat(user.getPhoneNumber()).isEqualTo("+380");
+        });
+        assertThat(userRepository.findByEmail("a@gmail.com").orElseThrow().getPhoneNumber()).isNull();
+    }
+
+    @Test
+    public void testImportResumesFromCheckpoint() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            ndjson.append("{\"email\":\"user").append(i).append("@gmail.com\",\"firstName\":\"A\",\"lastName\":\"B\",")
+                    .append("\"birthDate\":\"1990-01-01\"}\n");
+        }
+        // a first run that stopped after two committed chunks
+        userImportRepository.saveCheckpoint("partner.ndjson", 6);
+
+        mvc.perform(post("/users/import").param("importId", "partner.ndjson")
+                        .contentType(UserStreamWriter.NDJSON_VALUE).content(ndjson.toString()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.skipped").value(6))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.checkpoint").value(7));
+
+        assertThat(userRepository.findAll()).extracting("email").containsExactly("user6@gmail.com");
+        assertThat(userImportRepository.findCheckpoint("partner.ndjson")).isEqualTo(7);
+    }
+
+    @Test
+    public void testCheckpointCommitsWithItsChunk() throws Exception {
+        int rows = 1200;
+        StringBuilder csv = new StringBuilder("email,firstName,lastName,birthDate\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("crash").append(i).append("@gmail.com,First,Last,1990-01-01\n");
+        }
+        // the run dies while writing the second chunk, after its users were flushed
+        doCallRealMethod().doThrow(new IllegalStateException("crash"))
+                .when(userImportRepository).saveCheckpoint(eq("partner.csv"), anyLong());
+
+        assertThatThrownBy(() -> mvc.perform(post("/users/import").param("importId", "partner.csv")
+                .contentType(UserExportWriter.CSV_VALUE).content(csv.toString())))
+                .hasRootCauseMessage("crash");
+        assertThat(userRepository.count()).isEqualTo(500);
+        assertThat(userImportRepository.findCheckpoint("partner.csv")).isEqualTo(500);
+
+        doCallRealMethod().when(userImportRepository).saveCheckpoint(eq("partner.csv"), anyLong());
+        mvc.perform(post("/users/import").param("importId", "partner.csv")
+                        .contentType(UserExportWriter.CSV_VALUE).content(csv.toString()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.skipped").value(500))
+                .andExpect(jsonPath("$.created").value(rows - 500))
+                .andExpect(jsonPath("$.rejectedCount").value(0));
+        assertThat(userRepository.count()).isEqualTo(rows);
+    }
+
+    @Test
+    public void testImportRejectsBrokenFileAndBadImportId() throws Exception {
+        mvc.perform(post("/users/import").contentType(UserStreamWriter.NDJSON_VALUE).content("{\"email\": }"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].message").value(StringCodeConstants.MALFORMED_BATCH));
+        mvc.perform(post("/users/import").param("importId", "x".repeat(65))
+                        .contentType(UserStreamWriter.NDJSON_VALUE).content(""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(1)));
+    }
+
+    @Test
+    public void testLargeCsvImport() throws Exception {
+        int rows = 20_000;
+        StringBuilder csv = new StringBuilder("email,firstName,lastName,birthDate\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("bulk").append(i).append("@gmail.com,First,Last,1990-01-01\n");
+        }
+
+        mvc.perform(post("/users/import").contentType(UserExportWriter.CSV_VALUE).content(csv.toString()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(rows));
+        assertThat(userRepository.count()).isEqualTo(rows);
+    }
+}
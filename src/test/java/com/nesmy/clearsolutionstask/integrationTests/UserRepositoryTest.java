@@ -0,0 +1,108 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.nesmy.clearsolutionstask.dto.BirthYearCountDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.utils.KeysetCursor;
+import jakarta.persistence.Tuple;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        userRepository.saveAll(List.of(
+                new User("a@gmail.com", "A", "A", LocalDate.of(1980, 1, 1), null, null),
+                new User("b@gmail.com", "B", "B", LocalDate.of(1980, 6, 1), null, null),
+                new User("c@gmail.com", "C", "C", LocalDate.of(1995, 3, 3), null, null),
+                new User("d@gmail.com", "D", "D", LocalDate.of(2010, 3, 3), null, null)));
+        userRepository.flush();
+    }
+
+    @Test
+    public void testCountByBirthYearGroupsInDatabase() {
+        List<BirthYearCountDTO> buckets = userRepository.countByBirthYear(LocalDate.of(1970, 1, 1), LocalDate.of(2000, 1, 1));
+
+        assertThat(buckets).extracting(BirthYearCountDTO::getBirthYear).containsExactly(1980, 1995);
+        assertThat(buckets).extracting(BirthYearCountDTO::getCount).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void testFindFirstPageByBirthDateNotAfter() {
+        List<User> users = userRepository.findFirstPageByBirthDateNotAfter(LocalDate.of(1995, 3, 3), PageRequest.ofSize(10));
+
+        assertThat(users).extracting(User::getEmail).containsExactly("a@gmail.com", "b@gmail.com", "c@gmail.com");
+    }
+
+    @Test
+    public void testFindFieldsByBirthDateBetweenSelectsOnlyRequestedColumns() {
+        List<Tuple> firstPage = userRepository.findFieldsByBirthDateBetween(LocalDate.of(1970, 1, 1),
+                LocalDate.of(2000, 1, 1), Set.of("email", "birthDate", "userId"), null, 2);
+        Tuple last = firstPage.get(1);
+        List<Tuple> nextPage = userRepository.findFieldsByBirthDateBetween(LocalDate.of(1970, 1, 1),
+                LocalDate.of(2000, 1, 1), Set.of("email", "birthDate", "userId"),
+                new KeysetCursor(last.get("birthDate", LocalDate.class), last.get("userId", Long.class)), 2);
+
+        assertThat(firstPage).extracting(row -> row.get("email")).containsExactly("a@gmail.com", "b@gmail.com");
+        assertThat(firstPage.get(0).getElements()).hasSize(3);
+        assertThat(nextPage).extracting(row -> row.get("email")).containsExactly("c@gmail.com");
+    }
+
+    @Test
+    public void testDeleteByUserIdReturnsAffectedRows() {
+        Long id = userRepository.findFirstPageByBirthDateNotAfter(LocalDate.of(1980, 1, 1), PageRequest.ofSize(1))
+                .get(0).getUserId();
+
+        assertThat(userRepository.deleteByUserId(id)).isEqualTo(1);
+        assertThat(userRepository.deleteByUserId(id)).isZero();
+    }
+
+    @Test
+    public void testFindIdsAndDeleteByBirthDateRange() {
+        List<Long> ids = userRepository.findIdsByBirthDateBetween(LocalDate.of(1970, 1, 1), LocalDate.of(2000, 1, 1),
+                PageRequest.ofSize(10));
+
+        assertThat(ids).hasSize(3);
+        assertThat(userRepository.deleteByUserIdIn(ids)).isEqualTo(3);
+        assertThat(userRepository.findAll()).extracting(User::getEmail).containsExactly("d@gmail.com");
+    }
+
+    @Test
+    public void testBirthDateRangeUsesIndex() {
+        String plan = explain("select * from users where birth_date between date '1980-01-01' and date '1990-01-01' " +
+                "order by birth_date, user_id");
+
+        assertThat(plan).containsIgnoringCase("idx_users_birth_date");
+    }
+
+    @Test
+    public void testEmailLookupUsesUniqueIndex() {
+        String plan = explain("select * from users where email = 'a@gmail.com'");
+
+        assertThat(plan).containsIgnoringCase("ux_users_email");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+}
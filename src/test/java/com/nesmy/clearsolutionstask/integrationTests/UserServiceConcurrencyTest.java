@@ -0,0 +1,154 @@
+package com.nesmy.clearsolutionstask.integrationTests;
+
+import com.nesmy.clearsolutionstask.dto.BulkDeleteResultDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import com.nesmy.clearsolutionstask.exceptions.ApiException;
+import com.nesmy.clearsolutionstask.repository.UserRepository;
+import com.nesmy.clearsolutionstask.web.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "user.update.max-attempts=1000",
+        "user.batch.size=5"})
+@AutoConfigureTestDatabase
+public class UserServiceConcurrencyTest {
+
+    private static final int WRITES_PER_THREAD = 25;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long id;
+
+    @Before
+    public void setUp() {
+        id = userService.save(new User("a@gmail.com", "A", "A", LocalDate.of(1990, 1, 1), "Address", "000")).getUserId();
+    }
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentPatchesOfDifferentFieldsAreNotLost() throws Exception {
+        List<BiConsumer<User, Integer>> writers = List.of(
+                (user, i) -> user.setFirstName("First" + i),
+                (user, i) -> user.setLastName("Last" + i),
+                (user, i) -> user.setAddress("Address" + i),
+                (user, i) -> user.setPhoneNumber("Phone" + i),
+                (user, i) -> user.setEmail("user" + i + "@gmail.com"),
+                (user, i) -> user.setBirthDate(LocalDate.of(1990, 1, 1).minusDays(i)));
+        ExecutorService executor = Executors.newFixedThreadPool(writers.size());
+        try {
+            List<Callable<Void>> tasks = writers.stream().<Callable<Void>>map(writer -> () -> {
+                for (int i = 1; i <= WRITES_PER_THREAD; i++) {
+                    User patch = new User(id, null, null, null, null, null, null);
+                    writer.accept(patch, i);
+                    userService.patch(id, patch);
+                }
+                return null;
+            }).toList();
+            for (Future<Void> future : executor.invokeAll(tasks))
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        User stored = userRepository.findById(id).orElseThrow();
+        assertThat(stored.getFirstName()).isEqualTo("First" + WRITES_PER_THREAD);
+        assertThat(stored.getLastName()).isEqualTo("Last" + WRITES_PER_THREAD);
+        assertThat(stored.getAddress()).isEqualTo("Address" + WRITES_PER_THREAD);
+        assertThat(stored.getPhoneNumber()).isEqualTo("Phone" + WRITES_PER_THREAD);
+        assertThat(stored.getEmail()).isEqualTo("user" + WRITES_PER_THREAD + "@gmail.com");
+        assertThat(stored.getBirthDate()).isEqualTo(LocalDate.of(1990, 1, 1).minusDays(WRITES_PER_THREAD));
+        assertThat(stored.getVersion()).isEqualTo((long) writers.size() * WRITES_PER_THREAD);
+        assertThat(userService.findById(id)).isEqualTo(stored);
+    }
+
+    @Test
+    public void testPatchWithWarmCacheIssuesSingleStatement() {
+        userService.findById(id);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        User patched = userService.patch(id, new User(id, null, "Patched", null, null, null, null));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(patched.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testDeleteIssuesSingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(userService.deleteById(id)).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(userService.deleteById(id)).isFalse();
+        assertThat(userService.findById(id)).isNull();
+    }
+
+    @Test
+    public void testDeleteByBirthDateRangeRunsInChunks() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+            users.add(new User("bulk" + i + "@gmail.com", "B", "B", LocalDate.of(1970, 1, 1).plusDays(i), null, null));
+        userService.saveAll(users.iterator());
+
+        BulkDeleteResultDTO result = userService.deleteByBirthDateBetween(LocalDate.of(1969, 1, 1), LocalDate.of(1971, 1, 1));
+
+        assertThat(result.getDeleted()).isEqualTo(12);
+        assertThat(result.getChunks()).isEqualTo(3);
+        assertThat(userRepository.findAll()).extracting(User::getUserId).containsExactly(id);
+    }
+
+    @Test
+    public void testPatchWithStaleVersionIsRejected() {
+        userService.patch(id, new User(id, null, "Patched", null, null, null, null));
+
+        assertThatThrownBy(() -> userService.patch(id, new User(id, null, "Stale", null, null, null, null), Set.of(0L)))
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED));
+        assertThat(userRepository.findById(id).orElseThrow().getFirstName()).isEqualTo("Patched");
+    }
+
+    @Test
+    public void testPatchMatchingAnyListedVersionIsApplied() {
+        User patched = userService.patch(id, new User(id, null, "Patched", null, null, null, null));
+
+        userService.patch(id, new User(id, null, "Listed", null, null, null, null), Set.of(0L, patched.getVersion()));
+
+        assertThat(userRepository.findById(id).orElseThrow().getFirstName()).isEqualTo("Listed");
+    }
+}
@@ -0,0 +1,61 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.nesmy.clearsolutionstask.repository.BirthDateIndex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BirthDateIndexTest {
+
+    private final BirthDateIndex index = new BirthDateIndex();
+
+    @Before
+    public void setUp() {
+        index.append(1, LocalDate.of(1980, 1, 1));
+        index.append(2, LocalDate.of(1980, 6, 1));
+        index.append(5, LocalDate.of(1980, 6, 1));
+        index.append(3, LocalDate.of(1995, 3, 3));
+        index.add(4, LocalDate.of(1980, 6, 1));
+    }
+
+    @Test
+    public void testCountIncludesBothEnds() {
+        assertThat(index.count(LocalDate.of(1980, 1, 1), LocalDate.of(1980, 6, 1))).isEqualTo(4);
+        assertThat(index.count(LocalDate.of(1980, 1, 2), LocalDate.of(1995, 3, 2))).isEqualTo(3);
+        assertThat(index.count(LocalDate.of(2000, 1, 1), LocalDate.of(2010, 1, 1))).isZero();
+    }
+
+    @Test
+    public void testPageFollowsKeysetOrder() {
+        long[] userIds = new long[2];
+        int[] epochDays = new int[2];
+        LocalDate start = LocalDate.of(1970, 1, 1);
+        LocalDate end = LocalDate.of(2000, 1, 1);
+
+        assertThat(index.page(start, end, null, null, userIds, epochDays)).isEqualTo(2);
+        assertThat(userIds).containsExactly(1, 2);
+        assertThat(index.page(start, end, LocalDate.ofEpochDay(epochDays[1]), userIds[1], userIds, epochDays)).isEqualTo(2);
+        assertThat(userIds).containsExactly(4, 5);
+        assertThat(index.page(start, end, LocalDate.of(1980, 6, 1), 5L, userIds, epochDays)).isEqualTo(1);
+        assertThat(userIds[0]).isEqualTo(3);
+        assertThat(LocalDate.ofEpochDay(epochDays[0])).isEqualTo(LocalDate.of(1995, 3, 3));
+    }
+
+    @Test
+    public void testPutMovesAndRemoveDropsEntries() {
+        index.put(2, LocalDate.of(2001, 1, 1));
+        index.remove(1);
+        index.removeAll(List.of(5L, 42L));
+
+        long[] userIds = new long[10];
+        int count = index.page(LocalDate.of(1970, 1, 1), LocalDate.of(2010, 1, 1), null, null, userIds, new int[10]);
+
+        assertThat(Arrays.copyOf(userIds, count)).containsExactly(4, 3, 2);
+        assertThat(index.size()).isEqualTo(3);
+    }
+}
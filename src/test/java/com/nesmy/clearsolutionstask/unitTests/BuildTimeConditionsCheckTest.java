@@ -0,0 +1,38 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.nesmy.clearsolutionstask.config.BuildTimeConditionsCheck;
+import com.nesmy.clearsolutionstask.web.filter.RateLimitFilter;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BuildTimeConditionsCheckTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    @Test
+    public void testMatchingBuildStarts() {
+        environment.setProperty("user.rate-limit.enabled", "true");
+        beanFactory.registerBeanDefinition("rateLimitFilter", new RootBeanDefinition(RateLimitFilter.class));
+
+        assertThatCode(() -> new BuildTimeConditionsCheck(environment, beanFactory).afterSingletonsInstantiated())
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void testPropertiesTheBuildIgnoresFailStartup() {
+        // built with the defaults, started with replicas and without rate limiting
+        environment.setProperty("user.replica.urls", "jdbc:postgresql://replica-1:5432/db");
+        environment.setProperty("user.rate-limit.enabled", "false");
+        beanFactory.registerBeanDefinition("rateLimitFilter", new RootBeanDefinition(RateLimitFilter.class));
+
+        assertThatThrownBy(() -> new BuildTimeConditionsCheck(environment, beanFactory).afterSingletonsInstantiated())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("user.replica.urls, user.rate-limit.enabled");
+    }
+}
@@ -0,0 +1,49 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.web.filter.ConcurrencyLimitFilter;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testRequestOverLimitIsRejected() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 0, objectMapper);
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+
+        // the second request arrives while the first still holds the only permit
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), first, (request, response) -> {
+            MockHttpServletResponse second = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/users/2"), second, new MockFilterChain());
+            nested.set(second);
+        });
+
+        assertThat(first.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(nested.get().getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(nested.get().getContentAsString()).contains(StringCodeConstants.SERVICE_OVERLOADED);
+    }
+
+    @Test
+    public void testPermitIsReleasedAfterRequest() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 0, objectMapper);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), first, new MockFilterChain());
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), second, new MockFilterChain());
+
+        assertThat(second.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+}
@@ -0,0 +1,37 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.nesmy.clearsolutionstask.repository.EmailFilter;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmailFilterTest {
+
+    private static final int EMAILS = 100_000;
+
+    @Test
+    public void testAddedEmailsAreAlwaysFound() {
+        EmailFilter filter = new EmailFilter(EMAILS, 0.01);
+        for (int i = 0; i < EMAILS; i++)
+            filter.put("user" + i + "@gmail.com");
+
+        for (int i = 0; i < EMAILS; i++)
+            assertThat(filter.mightContain("user" + i + "@gmail.com")).isTrue();
+    }
+
+    @Test
+    public void testFalsePositiveRateStaysNearTarget() {
+        EmailFilter filter = new EmailFilter(EMAILS, 0.01);
+        for (int i = 0; i < EMAILS; i++)
+            filter.put("user" + i + "@gmail.com");
+
+        int falsePositives = 0;
+        for (int i = 0; i < EMAILS; i++) {
+            if (filter.mightContain("other" + i + "@gmail.com"))
+                falsePositives++;
+        }
+
+        assertThat(falsePositives).isLessThan(EMAILS / 50);
+        assertThat(filter.sizeBytes()).isLessThan(EMAILS * 2L);
+    }
+}
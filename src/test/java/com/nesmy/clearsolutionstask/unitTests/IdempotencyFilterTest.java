@@ -0,0 +1,98 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.web.filter.IdempotencyFilter;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdempotencyFilterTest {
+
+    @Test
+    public void testBufferedBodyCanBeReadWithListener() throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter("X-API-Key", 10, 60, 1000, 64, new ObjectMapper());
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users");
+        request.addHeader("Idempotency-Key", "key-1");
+        request.setContent("{\"data\": {}}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        filter.doFilter(request, response, (req, res) -> {
+            ServletInputStream inputStream = req.getInputStream();
+            inputStream.setReadListener(new ReadListener() {
+
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[4];
+                    int count;
+                    while (inputStream.isReady() && (count = inputStream.read(buffer)) != -1)
+                        read.write(buffer, 0, count);
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+            ((HttpServletResponse) res).setStatus(HttpStatus.CREATED.value());
+        });
+
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("{\"data\": {}}");
+        assertThat(allDataRead).isTrue();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.CREATED.value());
+    }
+
+    @Test
+    public void testBodyPastLimitIsRejectedByContentLength() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users");
+        request.setContent(new byte[65]);
+
+        assertRejectedAsTooLarge(request);
+    }
+
+    // without a Content-Length, e.g. when chunked, the body is read only one byte past the limit
+    @Test
+    public void testBodyPastLimitIsRejectedWhileReading() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users") {
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContent(new byte[65]);
+
+        assertRejectedAsTooLarge(request);
+    }
+
+    private void assertRejectedAsTooLarge(MockHttpServletRequest request) throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter("X-API-Key", 10, 60, 1000, 64, new ObjectMapper());
+        request.addHeader("Idempotency-Key", "key-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean reachedChain = new AtomicBoolean();
+
+        filter.doFilter(request, response, (req, res) -> reachedChain.set(true));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        assertThat(response.getContentAsString()).contains(StringCodeConstants.IDEMPOTENT_BODY_TOO_LARGE);
+        assertThat(reachedChain).isFalse();
+    }
+}
@@ -0,0 +1,43 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.nesmy.clearsolutionstask.config.NativeHints;
+import com.nesmy.clearsolutionstask.dto.ApiErrorDTO;
+import com.nesmy.clearsolutionstask.dto.UserChangeDTO;
+import com.nesmy.clearsolutionstask.entity.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Before
+    public void setUp() {
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    public void testTypesSerializedOutsideControllersAreBound() throws Exception {
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(UserChangeDTO.class.getMethod("getOperation")))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(ApiErrorDTO.class.getMethod("getErrors")))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(User.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)).accepts(hints);
+    }
+
+    @Test
+    public void testMigrationsAndValueExtractorAreIncluded() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/common/V1__create_users.sql"))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/postgresql/V3__align_users_seq.sql"))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/jakarta.validation.valueextraction.ValueExtractor")).accepts(hints);
+    }
+}
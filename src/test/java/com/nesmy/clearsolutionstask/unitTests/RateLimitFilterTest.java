@@ -0,0 +1,92 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
+import com.nesmy.clearsolutionstask.web.filter.RateLimitFilter;
+import com.nesmy.clearsolutionstask.web.filter.RateLimitProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setDefaultLimit(new RateLimitProperties.Limit(null, null, 3, 0.001));
+        properties.getEndpoints().put("bulk",
+                new RateLimitProperties.Limit("POST", "/users/{operation:batch|import}", 1, 0.001));
+        filter = new RateLimitFilter(properties, new ObjectMapper());
+    }
+
+    @Test
+    public void testRequestOverLimitIsRejected() throws Exception {
+        MockHttpServletResponse response = null;
+        for (int i = 0; i < 3; i++) {
+            response = perform("GET", "/users/1", null);
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+        assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("3");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("0");
+
+        response = perform("GET", "/users/1", null);
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(response.getHeader("RateLimit-Reset"));
+        assertThat(response.getContentAsString()).contains(StringCodeConstants.RATE_LIMIT_EXCEEDED);
+    }
+
+    @Test
+    public void testEndpointLimitAndApiKeyHaveTheirOwnBuckets() throws Exception {
+        assertThat(perform("POST", "/users/batch", null).getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform("POST", "/users/import", null).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(perform("POST", "/users/import", "partner").getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        // the default bucket is untouched by the bulk endpoint
+        MockHttpServletResponse response = perform("GET", "/users", null);
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("2");
+    }
+
+    @Test
+    public void testEncodedPathsAndContextPathShareTheBuckets() throws Exception {
+        assertThat(perform("POST", "/users/batch", null).getStatus()).isEqualTo(HttpStatus.OK.value());
+        // routed to the same handlers as /users/import and /users
+        assertThat(perform("POST", "/users/%69mport", null).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(perform("POST", "/users;v=1/import", null).getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform("GET", "/user%73", null).getHeader("RateLimit-Limit")).isEqualTo("3");
+        }
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setContextPath("/api");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    public void testOtherPathsAreNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = perform("GET", "/actuator/health", null);
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+            assertThat(response.getHeader("RateLimit-Limit")).isNull();
+        }
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (apiKey != null)
+            request.addHeader("X-API-Key", apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,56 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.nesmy.clearsolutionstask.web.filter.RateLimiter;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(-5_000_000_000L);
+
+    @Test
+    public void testBurstThenRefill() {
+        RateLimiter limiter = new RateLimiter(3, 2, 100, clock::get);
+
+        for (int i = 3; i > 0; i--) {
+            long acquired = limiter.tryAcquire("client");
+            assertThat(acquired).isPositive();
+            assertThat(limiter.remaining(acquired)).isEqualTo(i - 1);
+        }
+        long rejected = limiter.tryAcquire("client");
+        assertThat(rejected).isNegative();
+        assertThat(-rejected).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // another client has its own bucket
+        assertThat(limiter.tryAcquire("other")).isPositive();
+
+        // one token every 500 ms
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(limiter.tryAcquire("client")).isPositive();
+        assertThat(limiter.tryAcquire("client")).isNegative();
+
+        // a bucket never holds more than its capacity
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        long acquired = limiter.tryAcquire("client");
+        assertThat(limiter.remaining(acquired)).isEqualTo(2);
+    }
+
+    @Test
+    public void testClientsBeyondMaxShareOneBucket() {
+        RateLimiter limiter = new RateLimiter(1, 1, 2, clock::get);
+
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.tryAcquire("b")).isPositive();
+        assertThat(limiter.tryAcquire("c")).isPositive();
+        assertThat(limiter.tryAcquire("d")).isNegative();
+
+        // once a and b are idle for a full refill they make room again
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire("d")).isPositive();
+        assertThat(limiter.tryAcquire("d")).isNegative();
+    }
+}
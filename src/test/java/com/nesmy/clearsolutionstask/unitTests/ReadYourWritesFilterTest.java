@@ -0,0 +1,41 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.nesmy.clearsolutionstask.config.ReplicaRoutingDataSource;
+import com.nesmy.clearsolutionstask.web.filter.ReadYourWritesFilter;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter("X-API-Key", 60_000, 100);
+
+    @Test
+    public void testReadsAfterWriteArePinnedForTheWriterOnly() throws Exception {
+        assertThat(pinned("POST", "writer")).isTrue();
+
+        assertThat(pinned("GET", "writer")).isTrue();
+        assertThat(pinned("GET", "reader")).isFalse();
+    }
+
+    // one remote address may be a load balancer or NAT in front of many clients
+    @Test
+    public void testClientsWithoutApiKeyAreNotPinnedByAddress() throws Exception {
+        assertThat(pinned("POST", null)).isTrue();
+
+        assertThat(pinned("GET", null)).isFalse();
+    }
+
+    private boolean pinned(String method, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/users");
+        request.setRemoteAddr("10.0.0.1");
+        if (apiKey != null)
+            request.addHeader("X-API-Key", apiKey);
+        boolean[] pinned = new boolean[1];
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> pinned[0] = ReplicaRoutingDataSource.isPinned());
+        return pinned[0];
+    }
+}
@@ -0,0 +1,86 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.nesmy.clearsolutionstask.utils.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testConcurrentCallsShareOneExecution() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", Duration.ZERO, 0, meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return "value";
+            })));
+            while (count("executed") == 0)
+                Thread.sleep(1);
+            for (int i = 1; i < CALLERS; i++)
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> "other")));
+            // every other caller has joined the first one before it is let go
+            while (count("coalesced") < CALLERS - 1)
+                Thread.sleep(1);
+            release.countDown();
+
+            for (Future<String> result : results)
+                assertThat(result.get()).isEqualTo("value");
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executions).hasValue(1);
+
+        // nothing is kept once the flight has landed
+        assertThat(singleFlight.execute("key", () -> "next")).isEqualTo("next");
+        assertThat(count("executed")).isEqualTo(2);
+    }
+
+    @Test
+    public void testRecentResultsAreReusedWithinTheTtl() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", Duration.ofMinutes(1), 10, meterRegistry);
+
+        assertThat(singleFlight.execute("key", () -> "value")).isEqualTo("value");
+        assertThat(singleFlight.execute("key", () -> "other")).isEqualTo("value");
+        assertThat(count("cached")).isEqualTo(1);
+
+        // failures are not kept
+        assertThatThrownBy(() -> singleFlight.execute("failing", () -> {
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.execute("failing", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    private double count(String result) {
+        return meterRegistry.get(SingleFlight.CALLS_METER).tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
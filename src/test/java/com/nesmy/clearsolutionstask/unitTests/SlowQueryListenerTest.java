@@ -0,0 +1,51 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import com.nesmy.clearsolutionstask.config.SlowQueryListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlowQueryListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testOnlyStatementsOverThresholdAreCounted() {
+        SlowQueryListener listener = listener(1.0);
+
+        listener.afterQuery(executionInfo(50), List.of(new QueryInfo("select 1")));
+        listener.afterQuery(executionInfo(200), List.of(new QueryInfo("select 2")));
+        listener.afterQuery(executionInfo(900), List.of(new QueryInfo("select 3")));
+
+        assertThat(meterRegistry.counter("user.sql.slow").count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testUnsampledStatementsAreStillCounted() {
+        SlowQueryListener listener = listener(0.0);
+
+        listener.afterQuery(executionInfo(500), List.of(new QueryInfo("select 1")));
+
+        assertThat(meterRegistry.counter("user.sql.slow").count()).isEqualTo(1);
+    }
+
+    private SlowQueryListener listener(double sampleRate) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry));
+        return new SlowQueryListener(200, sampleRate, beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    private ExecutionInfo executionInfo(long elapsedMs) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMs);
+        executionInfo.setSuccess(true);
+        return executionInfo;
+    }
+}
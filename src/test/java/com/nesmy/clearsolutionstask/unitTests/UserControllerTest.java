@@ -2,18 +2,27 @@ package com.nesmy.clearsolutionstask.unitTests;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nesmy.clearsolutionstask.dto.BatchRejectionDTO;
+import com.nesmy.clearsolutionstask.dto.BatchResultDTO;
+import com.nesmy.clearsolutionstask.dto.BirthYearCountDTO;
+import com.nesmy.clearsolutionstask.dto.BulkDeleteResultDTO;
 import com.nesmy.clearsolutionstask.dto.DataDTO;
+import com.nesmy.clearsolutionstask.dto.PageDTO;
 import com.nesmy.clearsolutionstask.entity.User;
 import com.nesmy.clearsolutionstask.exceptions.ApiError;
 import com.nesmy.clearsolutionstask.exceptions.ApiException;
+import com.nesmy.clearsolutionstask.utils.KeysetCursor;
 import com.nesmy.clearsolutionstask.utils.StringCodeConstants;
 import com.nesmy.clearsolutionstask.web.controller.UserController;
 import com.nesmy.clearsolutionstask.web.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -23,23 +32,33 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(UserController.class)
+@Import(SimpleMeterRegistry.class)
 public class UserControllerTest {
 
     Long userId = 1L;
@@ -178,6 +197,75 @@ public class UserControllerTest {
                 .andExpect(status().isUnprocessableEntity());
     }
 
+    @Test
+    public void testUpdatePartiallyWithIfMatch() throws Exception {
+        User patched = new User(userAfterPartialUpdate);
+        patched.setVersion(5L);
+        when(userService.patch(userId, userForPartialUpdate, Set.of(4L))).thenReturn(patched);
+
+        mvc.perform(patch("/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(userForPartialUpdate))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+
+        verify(userService, never()).patch(userId, userForPartialUpdate);
+    }
+
+    @Test
+    public void testUpdateWithMalformedIfMatch() throws Exception {
+        mvc.perform(put("/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(updatedUser))))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userService, never()).update(eq(userId), any(User.class), any());
+        verify(userService, never()).update(eq(userId), any(User.class));
+    }
+
+    // If-Match compares strongly, so a weak tag is not a version the client saw
+    @Test
+    public void testUpdateWithWeakIfMatch() throws Exception {
+        mvc.perform(put("/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, "W/\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(updatedUser))))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userService, never()).update(eq(userId), any(User.class), any());
+        verify(userService, never()).update(eq(userId), any(User.class));
+    }
+
+    @Test
+    public void testUpdateWithIfMatchList() throws Exception {
+        User updated = new User(updatedUser);
+        updated.setVersion(8L);
+        when(userService.update(userId, updatedUser, Set.of(3L, 7L))).thenReturn(updated);
+
+        mvc.perform(put("/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, "\"3\", \"7\", W/\"8\", \"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(updatedUser))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""));
+    }
+
+    @Test
+    public void testUpdateWithIfMatchAny() throws Exception {
+        User updated = new User(updatedUser);
+        updated.setVersion(8L);
+        when(userService.update(eq(userId), eq(updatedUser), isNull())).thenReturn(updated);
+
+        mvc.perform(put("/users/{id}", userId)
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(updatedUser))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""));
+    }
+
     @Test
     public void testDeleteExistingUser() throws Exception {
         when(userService.deleteById(userId)).thenReturn(true);
@@ -195,6 +283,49 @@ public class UserControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testDeleteAllByIds() throws Exception {
+        BulkDeleteResultDTO result = new BulkDeleteResultDTO();
+        result.setRequested(3L);
+        result.setDeleted(2);
+        result.setChunks(1);
+        when(userService.deleteAllById(List.of(1L, 2L, 3L))).thenReturn(result);
+
+        mvc.perform(delete("/users")
+                        .param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("requested", is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("deleted", is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("chunks", is(1)));
+    }
+
+    @Test
+    public void testDeleteAllByBirthDateRange() throws Exception {
+        LocalDate startDate = LocalDate.of(1990, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 1, 1);
+        BulkDeleteResultDTO result = new BulkDeleteResultDTO();
+        result.setDeleted(1200);
+        result.setChunks(3);
+        when(userService.deleteByBirthDateBetween(startDate, endDate)).thenReturn(result);
+
+        mvc.perform(delete("/users")
+                        .param("startBirthDate", startDate.toString())
+                        .param("endBirthDate", endDate.toString()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("requested", nullValue()))
+                .andExpect(MockMvcResultMatchers.jsonPath("deleted", is(1200)));
+    }
+
+    @Test
+    public void testDeleteAllWithoutSelector() throws Exception {
+        mvc.perform(delete("/users")
+                        .param("startBirthDate", "1990-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).deleteAllById(any());
+        verify(userService, never()).deleteByBirthDateBetween(any(), any());
+    }
+
     @Test
     public void testFindByBirthDateBetweenWithValidDates() throws Exception {
 
@@ -225,4 +356,300 @@ public class UserControllerTest {
                         .param("endBirthDate", endDate.toString()))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    public void testFindByBirthDateBetweenFirstPage() throws Exception {
+        LocalDate startDate = LocalDate.of(1990, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 12, 31);
+        List<User> users = List.of(defaultUser, existingUser);
+
+        when(userService.findByBirthDateBetween(eq(startDate), eq(endDate), isNull(), eq(2))).thenReturn(users);
+
+        mvc.perform(get("/users")
+                        .param("startBirthDate", startDate.toString())
+                        .param("endBirthDate", endDate.toString())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data", hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor", is(KeysetCursor.after(existingUser).encode())));
+    }
+
+    @Test
+    public void testFindByBirthDateBetweenLastPage() throws Exception {
+        LocalDate startDate = LocalDate.of(1990, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 12, 31);
+        String cursor = KeysetCursor.after(defaultUser).encode();
+
+        when(userService.findByBirthDateBetween(eq(startDate), eq(endDate), any(KeysetCursor.class), eq(100)))
+                .thenReturn(List.of(existingUser));
+
+        mvc.perform(get("/users")
+                        .param("startBirthDate", startDate.toString())
+                        .param("endBirthDate", endDate.toString())
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor", nullValue()));
+    }
+
+    @Test
+    public void testFindByBirthDateBetweenWithInvalidCursor() throws Exception {
+        mvc.perform(get("/users")
+                        .param("startBirthDate", "1990-01-01")
+                        .param("endBirthDate", "2000-12-31")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].message", is(StringCodeConstants.INVALID_CURSOR)));
+    }
+
+    @Test
+    public void testFindByBirthDateBetweenWithTooLargeLimit() throws Exception {
+        mvc.perform(get("/users")
+                        .param("startBirthDate", "1990-01-01")
+                        .param("endBirthDate", "2000-12-31")
+                        .param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamByBirthDateBetweenAsNdjson() throws Exception {
+        LocalDate startDate = LocalDate.of(1990, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 12, 31);
+        doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(2);
+            consumer.accept(defaultUser);
+            consumer.accept(existingUser);
+            return null;
+        }).when(userService).streamByBirthDateBetween(eq(startDate), eq(endDate), any(Consumer.class));
+
+        MvcResult mvcResult = mvc.perform(get("/users")
+                        .param("startBirthDate", startDate.toString())
+                        .param("endBirthDate", endDate.toString())
+                        .param("stream", "ndjson"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(mvcResult.getResponse().getContentType()).isEqualTo("application/x-ndjson");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[1], User.class)).isEqualTo(existingUser);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamByBirthDateBetweenAsJson() throws Exception {
+        LocalDate startDate = LocalDate.of(1990, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 12, 31);
+        doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(2);
+            consumer.accept(defaultUser);
+            return null;
+        }).when(userService).streamByBirthDateBetween(eq(startDate), eq(endDate), any(Consumer.class));
+
+        mvc.perform(get("/users")
+                        .param("startBirthDate", startDate.toString())
+                        .param("endBirthDate", endDate.toString())
+                        .param("stream", "json"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("data[0].email", is(defaultUser.getEmail())));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamByBirthDateBetweenWithInvalidDates() throws Exception {
+        LocalDate startDate = LocalDate.of(2002, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 12, 31);
+        doAnswer(invocation -> {
+            throw new ApiException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    List.of(new ApiError("", StringCodeConstants.START_DATE_IS_NOT_BEFORE_END_DATE)));
+        }).when(userService).streamByBirthDateBetween(eq(startDate), eq(endDate), any(Consumer.class));
+
+        mvc.perform(get("/users")
+                        .param("startBirthDate", startDate.toString())
+                        .param("endBirthDate", endDate.toString())
+                        .param("stream", "json"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].message",
+                        is(StringCodeConstants.START_DATE_IS_NOT_BEFORE_END_DATE)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateBatchFromJsonArray() throws Exception {
+        List<User> received = new ArrayList<>();
+        BatchResultDTO result = new BatchResultDTO();
+        result.setCreated(2);
+        when(userService.saveAll(any(Iterator.class))).thenAnswer(invocation -> {
+            ((Iterator<User>) invocation.getArgument(0)).forEachRemaining(received::add);
+            return result;
+        });
+
+        mvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(defaultUser, existingUser))))
+                .andExpect(status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("created", is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("rejected", hasSize(0)));
+
+        assertThat(received).containsExactly(defaultUser, existingUser);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateBatchFromNdjsonWithRejectedRecord() throws Exception {
+        List<User> received = new ArrayList<>();
+        BatchResultDTO result = new BatchResultDTO();
+        result.setCreated(1);
+        result.getRejected().add(new BatchRejectionDTO(1,
+                List.of(new ApiError("birthDate", StringCodeConstants.BIRTHDATE_IS_LESS_THAN_18))));
+        when(userService.saveAll(any(Iterator.class))).thenAnswer(invocation -> {
+            ((Iterator<User>) invocation.getArgument(0)).forEachRemaining(received::add);
+            return result;
+        });
+
+        String body = objectMapper.writeValueAsString(defaultUser) + "\n" + objectMapper.writeValueAsString(invalidDataUser) + "\n";
+        mvc.perform(post("/users/batch")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isMultiStatus())
+                .andExpect(MockMvcResultMatchers.jsonPath("created", is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("rejected[0].index", is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("rejected[0].errors[0].fieldName", is("birthDate")));
+
+        assertThat(received).containsExactly(defaultUser, invalidDataUser);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateBatchWithMalformedBody() throws Exception {
+        when(userService.saveAll(any(Iterator.class))).thenAnswer(invocation -> {
+            ((Iterator<User>) invocation.getArgument(0)).forEachRemaining(user -> { });
+            return new BatchResultDTO();
+        });
+
+        mvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"email\": \"a@b.c\"}, {\"birthDate\": \"not-a-date\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].message", is(StringCodeConstants.MALFORMED_BATCH)));
+    }
+
+    @Test
+    public void testFindOlderThan() throws Exception {
+        when(userService.findOlderThan(eq(18), isNull(), eq(100))).thenReturn(List.of(defaultUser));
+
+        mvc.perform(get("/users/older-than/{age}", 18))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("nextCursor", nullValue()));
+    }
+
+    @Test
+    public void testCountByBirthYear() throws Exception {
+        LocalDate startDate = LocalDate.of(1990, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 12, 31);
+        when(userService.countByBirthYear(startDate, endDate))
+                .thenReturn(List.of(new BirthYearCountDTO(1990, 3L), new BirthYearCountDTO(1998, 1L)));
+
+        mvc.perform(get("/users/birth-years")
+                        .param("startBirthDate", startDate.toString())
+                        .param("endBirthDate", endDate.toString()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data", hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("data[0].birthYear", is(1990)))
+                .andExpect(MockMvcResultMatchers.jsonPath("data[0].count", is(3)));
+    }
+
+    @Test
+    public void testCountByBirthDateBetween() throws Exception {
+        LocalDate startDate = LocalDate.of(1990, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 1, 1);
+        when(userService.countByBirthDateBetween(startDate, endDate)).thenReturn(42L);
+
+        mvc.perform(get("/users/count")
+                        .param("startBirthDate", startDate.toString())
+                        .param("endBirthDate", endDate.toString()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data", is(42)));
+    }
+
+    @Test
+    public void testFindByIdWithExistingUser() throws Exception {
+        User user = new User(defaultUser);
+        user.setVersion(3L);
+        when(userService.findById(userId)).thenReturn(user);
+
+        mvc.perform(get("/users/{id}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("data.email", is(defaultUser.getEmail())));
+    }
+
+    @Test
+    public void testFindByEmail() throws Exception {
+        when(userService.findByEmail(defaultUser.getEmail())).thenReturn(defaultUser);
+
+        mvc.perform(get("/users/by-email/{email}", defaultUser.getEmail()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data.userId", is(userId.intValue())));
+    }
+
+    @Test
+    public void testFindByEmailWithNotFoundUser() throws Exception {
+        when(userService.findByEmail("nobody@gmail.com")).thenReturn(null);
+
+        mvc.perform(get("/users/by-email/{email}", "nobody@gmail.com"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testSaveWithTakenEmail() throws Exception {
+        when(userService.save(defaultUser)).thenThrow(new ApiException(HttpStatus.CONFLICT,
+                List.of(new ApiError("email", StringCodeConstants.DUPLICATE_EMAIL))));
+
+        mvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DataDTO<>(defaultUser))))
+                .andExpect(status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("errors[0].message", is(StringCodeConstants.DUPLICATE_EMAIL)));
+    }
+
+    @Test
+    public void testFindByIdWithNotFoundUser() throws Exception {
+        when(userService.findById(userId)).thenReturn(null);
+
+        mvc.perform(get("/users/{id}", userId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testFindByIdWithSelectedFields() throws Exception {
+        when(userService.findFieldsById(userId, List.of("email", "firstName")))
+                .thenReturn(Map.of("email", defaultUser.getEmail(), "firstName", defaultUser.getFirstName()));
+
+        mvc.perform(get("/users/{id}", userId)
+                        .param("fields", "email,firstName"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data.email", is(defaultUser.getEmail())))
+                .andExpect(MockMvcResultMatchers.jsonPath("data.lastName").doesNotExist());
+    }
+
+    @Test
+    public void testFindByBirthDateBetweenWithSelectedFields() throws Exception {
+        LocalDate startDate = LocalDate.of(1990, 1, 1);
+        LocalDate endDate = LocalDate.of(2000, 12, 31);
+        when(userService.findFieldsByBirthDateBetween(eq(startDate), eq(endDate), eq(List.of("email")), isNull(), eq(100)))
+                .thenReturn(new PageDTO<>(List.of(Map.of("email", defaultUser.getEmail())), null));
+
+        mvc.perform(get("/users")
+                        .param("startBirthDate", startDate.toString())
+                        .param("endBirthDate", endDate.toString())
+                        .param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("data", hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("data[0].email", is(defaultUser.getEmail())))
+                .andExpect(MockMvcResultMatchers.jsonPath("data[0].firstName").doesNotExist());
+    }
 }
@@ -0,0 +1,76 @@
+package com.nesmy.clearsolutionstask.unitTests;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The optimizer User ids go through (pooled, allocationSize 50, initial value 1) against users_seq as the
+// PostgreSQL migrations leave it: next value max(user_id) + 50, increment 50
+public class UserIdBlockTest {
+
+    private static final int ALLOCATION_SIZE = 50;
+    private static final long MAX_USER_ID = 1234;
+
+    @Test
+    public void testFirstBlockStartsAfterExistingIds() {
+        Sequence sequence = new Sequence(MAX_USER_ID + ALLOCATION_SIZE);
+        Optimizer optimizer = pooledOptimizer();
+
+        assertThat((Long) optimizer.generate(sequence)).isEqualTo(MAX_USER_ID + 1);
+        for (int i = 1; i < ALLOCATION_SIZE; i++) {
+            optimizer.generate(sequence);
+        }
+        assertThat((Long) optimizer.generate(sequence)).isEqualTo(MAX_USER_ID + ALLOCATION_SIZE + 1);
+        assertThat(sequence.calls).isEqualTo(2);
+    }
+
+    @Test
+    public void testNextValueJustAboveExistingIdsReusesThem() {
+        // where V3 left the sequence
+        Sequence sequence = new Sequence(MAX_USER_ID + 1);
+
+        assertThat((Long) pooledOptimizer().generate(sequence)).isLessThanOrEqualTo(MAX_USER_ID);
+    }
+
+    @Test
+    public void testEmptyTableStartsAtOne() {
+        Sequence sequence = new Sequence(ALLOCATION_SIZE);
+
+        assertThat((Long) pooledOptimizer().generate(sequence)).isEqualTo(1L);
+    }
+
+    private static Optimizer pooledOptimizer() {
+        return OptimizerFactory.buildOptimizer(StandardOptimizerDescriptor.POOLED.getExternalName(), Long.class,
+                ALLOCATION_SIZE, 1);
+    }
+
+    private static class Sequence implements AccessCallback {
+
+        private long next;
+        private int calls;
+
+        Sequence(long next) {
+            this.next = next;
+        }
+
+        @Override
+        public IntegralDataTypeHolder getNextValue() {
+            calls++;
+            IntegralDataTypeHolder value = IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class);
+            value.initialize(next);
+            next += ALLOCATION_SIZE;
+            return value;
+        }
+
+        @Override
+        public String getTenantIdentifier() {
+            return null;
+        }
+    }
+}